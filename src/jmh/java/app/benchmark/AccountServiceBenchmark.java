@@ -0,0 +1,35 @@
+package app.benchmark;
+
+import app.dto.AccountOperationResult;
+import app.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AccountServiceBenchmark {
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    private BenchmarkContext context;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("app.security.bcrypt-strength=" + bcryptStrength);
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountOperationResult login() {
+        return accountService.login(BenchmarkContext.USERNAME, BenchmarkContext.PASSWORD);
+    }
+}
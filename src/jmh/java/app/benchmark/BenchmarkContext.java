@@ -0,0 +1,111 @@
+package app.benchmark;
+
+import app.StoreApplication;
+import app.entity.Account;
+import app.entity.Product;
+import app.entity.Role;
+import app.entity.Store;
+import app.repository.AccountRepository;
+import app.repository.BalanceLedgerRepository;
+import app.repository.ProductRepository;
+import app.repository.RoleRepository;
+import app.repository.StoreRepository;
+import app.utils.Money;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class BenchmarkContext {
+
+    public static final String USERNAME = "bench";
+    public static final String PASSWORD = "benchPassword";
+    public static final int PRODUCT_COUNT = 50;
+
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+
+    private final PostgreSQLContainer<?> database;
+    private final ConfigurableApplicationContext context;
+    private final Long accountId;
+    private final Long storeId;
+    private final List<Long> productIds = new ArrayList<>();
+
+    private BenchmarkContext(PostgreSQLContainer<?> database, ConfigurableApplicationContext context) {
+        this.database = database;
+        this.context = context;
+
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        StoreRepository storeRepository = context.getBean(StoreRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+
+        Role role = roleRepository.findByName("ROLE_USER");
+        Account account = new Account(null, USERNAME, passwordEncoder.encode(PASSWORD),
+                Money.of(1_000_000_000), Collections.singleton(role), true);
+        this.accountId = accountRepository.save(account).getId();
+        // Торговые операции проверяют баланс по журналу, поэтому начальный баланс переносится в него
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status ->
+                context.getBean(BalanceLedgerRepository.class).backfillOpeningBalances());
+        this.storeId = storeRepository.save(new Store("Бенчмарк", account)).getId();
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            productIds.add(productRepository.save(new Product(null, "Продукт " + i, Money.of(10 + i))).getId());
+        }
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(accountId, null, Collections.emptyList()));
+    }
+
+    public static BenchmarkContext start(String... properties) {
+        PostgreSQLContainer<?> database = new PostgreSQLContainer<>(POSTGRES_IMAGE);
+        database.start();
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(StoreApplication.class)
+                    .profiles("bench")
+                    .properties("spring.datasource.url=" + database.getJdbcUrl(),
+                            "spring.datasource.username=" + database.getUsername(),
+                            "spring.datasource.password=" + database.getPassword())
+                    .properties(properties)
+                    .run();
+            return new BenchmarkContext(database, context);
+        } catch (RuntimeException e) {
+            database.stop();
+            throw e;
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int getLocalPort() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void close() {
+        SecurityContextHolder.clearContext();
+        context.close();
+        database.stop();
+    }
+}
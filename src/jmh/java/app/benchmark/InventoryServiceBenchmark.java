@@ -0,0 +1,55 @@
+package app.benchmark;
+
+import app.dto.InventoryOperationResult;
+import app.dto.StoreProductDTO;
+import app.enam.InventoryOperationType;
+import app.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InventoryServiceBenchmark {
+
+    private BenchmarkContext context;
+    private InventoryService inventoryService;
+    private Long storeId;
+    private List<Long> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        inventoryService = context.getBean(InventoryService.class);
+        storeId = context.getStoreId();
+        productIds = context.getProductIds();
+        for (Long productId : productIds) {
+            inventoryService.manageProduct(storeId, productId, 30, InventoryOperationType.BUY_PRODUCT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void manageProductBuyAndSell(Blackhole blackhole) {
+        Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+        InventoryOperationResult bought = inventoryService.manageProduct(
+                storeId, productId, 1, InventoryOperationType.BUY_PRODUCT);
+        InventoryOperationResult sold = inventoryService.manageProduct(
+                storeId, productId, 1, InventoryOperationType.SELL_PRODUCT);
+        blackhole.consume(bought);
+        blackhole.consume(sold);
+    }
+
+    @Benchmark
+    public List<StoreProductDTO> getAllProducts() {
+        return inventoryService.getAllProducts(storeId);
+    }
+}
@@ -0,0 +1,52 @@
+package app.benchmark;
+
+import app.utils.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Арифметика одной покупки: стоимость, проверка баланса и новый баланс — на {@link BigDecimal},
+ * как раньше в InventoryService, и на {@link Money}. Запуск с {@code -prof gc} показывает
+ * разницу в аллокациях на операцию.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    @Param({"1", "30"})
+    public int count;
+
+    private BigDecimal decimalPrice;
+    private BigDecimal decimalBalance;
+    private Money price;
+    private Money balance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        decimalPrice = new BigDecimal("55.90");
+        decimalBalance = new BigDecimal("1000000.00");
+        price = Money.of(decimalPrice);
+        balance = Money.of(decimalBalance);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTrade() {
+        BigDecimal totalCost = decimalPrice.multiply(BigDecimal.valueOf(count));
+        if (decimalBalance.compareTo(totalCost) < 0) {
+            return decimalBalance;
+        }
+        return decimalBalance.subtract(totalCost);
+    }
+
+    @Benchmark
+    public long moneyTrade() {
+        Money totalCost = price.multiply(count);
+        if (balance.isLessThan(totalCost)) {
+            return balance.cents();
+        }
+        return balance.subtract(totalCost).cents();
+    }
+}
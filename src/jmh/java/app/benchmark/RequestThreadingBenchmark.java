@@ -0,0 +1,93 @@
+package app.benchmark;
+
+import app.enam.InventoryOperationType;
+import app.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает обработку запросов на пуле платформенных потоков Tomcat и на виртуальных потоках:
+ * за одну операцию отправляется пачка из {@code concurrency} одновременных GET /inv/getAllProducts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class RequestThreadingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkContext.start(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "app.sql-tracking.enabled=false");
+        InventoryService inventoryService = context.getBean(InventoryService.class);
+        for (Long productId : context.getProductIds()) {
+            inventoryService.manageProduct(context.getStoreId(), productId, 5, InventoryOperationType.BUY_PRODUCT);
+        }
+
+        client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        URI baseUri = URI.create("http://localhost:" + context.getLocalPort());
+        HttpResponse<Void> login = client.send(HttpRequest.newBuilder(baseUri.resolve("/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "username=" + BenchmarkContext.USERNAME + "&password=" + BenchmarkContext.PASSWORD))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String session = login.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .map(cookie -> cookie.split(";", 2)[0])
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Не удалось войти в приложение"));
+        request = HttpRequest.newBuilder(baseUri.resolve("/inv/getAllProducts?storeId=" + context.getStoreId()))
+                .header("Cookie", session)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int concurrentRequests() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                succeeded++;
+            }
+        }
+        if (succeeded != concurrency) {
+            throw new IllegalStateException("Успешных ответов " + succeeded + " из " + concurrency);
+        }
+        return succeeded;
+    }
+}
@@ -0,0 +1,43 @@
+package app.benchmark;
+
+import app.dto.StoreOperationResult;
+import app.service.StoreService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StoreServiceBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private BenchmarkContext context;
+    private StoreService storeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        storeService = context.getBean(StoreService.class);
+        storeService.createStore("Переименуй A");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StoreOperationResult createStore() {
+        return storeService.createStore("Магазин " + sequence.incrementAndGet());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public StoreOperationResult changeName() {
+        storeService.changeName("Переименуй A", "Переименуй B");
+        return storeService.changeName("Переименуй B", "Переименуй A");
+    }
+}
@@ -0,0 +1,145 @@
+package app.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public final class LoadTestConfig {
+
+    private static final String PREFIX = "loadtest.";
+
+    private final URI baseUrl;
+    private final int accounts;
+    private final int setupConcurrency;
+    private final int maxInFlight;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int buyWeight;
+    private final int sellWeight;
+    private final int readWeight;
+    private final List<Long> productIds;
+    private final int maxCount;
+    private final String namePrefix;
+
+    private LoadTestConfig(Properties properties) {
+        this.baseUrl = URI.create(get(properties, "baseUrl", "http://localhost:8080"));
+        this.accounts = getInt(properties, "accounts", 1000);
+        this.setupConcurrency = getInt(properties, "setupConcurrency", 32);
+        this.maxInFlight = getInt(properties, "maxInFlight", 256);
+        this.rate = getInt(properties, "rate", 200);
+        this.warmup = Duration.ofSeconds(getInt(properties, "warmupSeconds", 10));
+        this.duration = Duration.ofSeconds(getInt(properties, "durationSeconds", 60));
+        this.buyWeight = getInt(properties, "buyWeight", 35);
+        this.sellWeight = getInt(properties, "sellWeight", 35);
+        this.readWeight = getInt(properties, "readWeight", 30);
+        this.productIds = parseIds(get(properties, "productIds", "1-3"));
+        this.maxCount = getInt(properties, "maxCount", 3);
+        this.namePrefix = get(properties, "namePrefix", "lt" + Long.toString(System.currentTimeMillis() % 1_000_000, 36));
+
+        if (accounts <= 0 || rate <= 0 || maxInFlight <= 0 || setupConcurrency <= 0 || maxCount <= 0) {
+            throw new IllegalArgumentException("accounts, rate, maxInFlight, setupConcurrency и maxCount должны быть больше нуля");
+        }
+        if (buyWeight < 0 || sellWeight < 0 || readWeight < 0 || buyWeight + sellWeight + readWeight == 0) {
+            throw new IllegalArgumentException("Веса операций должны быть неотрицательными и не все равны нулю");
+        }
+        if (productIds.isEmpty()) {
+            throw new IllegalArgumentException("Список productIds пуст");
+        }
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(System.getProperties());
+    }
+
+    private static String get(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(PREFIX + key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        return Integer.parseInt(get(properties, key, Integer.toString(defaultValue)));
+    }
+
+    private static List<Long> parseIds(String value) {
+        List<Long> ids = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int dash = trimmed.indexOf('-');
+            if (dash > 0) {
+                long from = Long.parseLong(trimmed.substring(0, dash).trim());
+                long to = Long.parseLong(trimmed.substring(dash + 1).trim());
+                for (long id = from; id <= to; id++) {
+                    ids.add(id);
+                }
+            } else {
+                ids.add(Long.parseLong(trimmed));
+            }
+        }
+        return ids;
+    }
+
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public int getSetupConcurrency() {
+        return setupConcurrency;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getBuyWeight() {
+        return buyWeight;
+    }
+
+    public int getSellWeight() {
+        return sellWeight;
+    }
+
+    public int getReadWeight() {
+        return readWeight;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    @Override
+    public String toString() {
+        return "baseUrl=" + baseUrl + ", accounts=" + accounts + ", rate=" + rate + "/s, maxInFlight=" + maxInFlight +
+                ", warmup=" + warmup.toSeconds() + "s, duration=" + duration.toSeconds() + "s, mix(buy/sell/read)=" +
+                buyWeight + "/" + sellWeight + "/" + readWeight + ", productIds=" + productIds;
+    }
+}
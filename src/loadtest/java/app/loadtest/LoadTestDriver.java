@@ -0,0 +1,255 @@
+package app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Генератор нагрузки: регистрирует аккаунты, создаёт по магазину на каждый и затем
+ * в открытом цикле с заданной частотой выполняет смесь BUY/SELL/getAllProducts.
+ * Задержка считается от запланированного момента отправки, поэтому очередь на стороне
+ * клиента при насыщении приложения попадает в перцентили.
+ */
+public final class LoadTestDriver {
+
+    private static final String PASSWORD = "loadtestPassword";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LoadTestDriver(LoadTestConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Конфигурация: " + config);
+        new LoadTestDriver(config).run();
+    }
+
+    public void run() throws InterruptedException {
+        LoadTestReport setupReport = new LoadTestReport();
+        long setupStart = System.nanoTime();
+        List<VirtualUser> users = setUp(setupReport);
+        setupReport.print(System.out, "setup", (System.nanoTime() - setupStart) / 1e9);
+        if (users.isEmpty()) {
+            System.err.println("Не удалось подготовить ни одного пользователя, нагрузка не запускается");
+            return;
+        }
+
+        if (!config.getWarmup().isZero()) {
+            LoadTestReport warmupReport = new LoadTestReport();
+            drive(users, config.getWarmup(), warmupReport);
+            warmupReport.print(System.out, "warmup", config.getWarmup().toNanos() / 1e9);
+        }
+
+        LoadTestReport report = new LoadTestReport();
+        long start = System.nanoTime();
+        drive(users, config.getDuration(), report);
+        report.print(System.out, "measurement (target " + config.getRate() + " req/s)", (System.nanoTime() - start) / 1e9);
+    }
+
+    private List<VirtualUser> setUp(LoadTestReport report) throws InterruptedException {
+        Semaphore permits = new Semaphore(config.getSetupConcurrency());
+        List<CompletableFuture<VirtualUser>> futures = new ArrayList<>(config.getAccounts());
+        for (int i = 0; i < config.getAccounts(); i++) {
+            permits.acquire();
+            String username = config.getNamePrefix() + "u" + i;
+            String storeName = config.getNamePrefix() + "s" + i;
+            CompletableFuture<VirtualUser> future = register(username, report)
+                    .thenCompose(ignored -> login(username, report))
+                    .thenCompose(auth -> createStore(auth, storeName, report))
+                    .exceptionally(error -> null)
+                    .whenComplete((user, error) -> permits.release());
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        List<VirtualUser> users = futures.stream()
+                .map(CompletableFuture::join)
+                .filter(user -> user != null)
+                .collect(Collectors.toList());
+        System.out.printf("Подготовлено пользователей с магазинами: %d из %d%n", users.size(), config.getAccounts());
+        return users;
+    }
+
+    private CompletableFuture<Void> register(String username, LoadTestReport report) {
+        HttpRequest request = formPost("/registration", Map.of("username", username, "password", PASSWORD), null);
+        return send("registration", request, System.nanoTime(), report).thenApply(response -> null);
+    }
+
+    private CompletableFuture<String[]> login(String username, LoadTestReport report) {
+        HttpRequest request = formPost("/login", Map.of("username", username, "password", PASSWORD), null);
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    long latency = System.nanoTime() - start;
+                    String[] auth = extractAuth(response);
+                    if (auth == null) {
+                        report.recordFailure("login", latency, response.statusCode(), response.body());
+                        throw new IllegalStateException("Не удалось войти: " + username);
+                    }
+                    report.recordSuccess("login", latency);
+                    return auth;
+                });
+    }
+
+    private CompletableFuture<VirtualUser> createStore(String[] auth, String storeName, LoadTestReport report) {
+        HttpRequest request = formPost("/store/createStore", Map.of("storeName", storeName), auth);
+        return send("createStore", request, System.nanoTime(), report)
+                .thenApply(response -> new VirtualUser(auth, readLong(response.body(), "storeId")));
+    }
+
+    private void drive(List<VirtualUser> users, Duration duration, LoadTestReport report) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+        long intervalNanos = 1_000_000_000L / config.getRate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        int totalWeight = config.getBuyWeight() + config.getSellWeight() + config.getReadWeight();
+
+        for (long n = 0; ; n++) {
+            long intended = start + n * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            VirtualUser user = users.get(random.nextInt(users.size()));
+            int roll = random.nextInt(totalWeight);
+            String operation;
+            HttpRequest request;
+            if (roll < config.getReadWeight()) {
+                operation = "getAllProducts";
+                request = get("/inv/getAllProducts?storeId=" + user.storeId(), user.auth());
+            } else {
+                operation = roll < config.getReadWeight() + config.getBuyWeight() ? "BUY_PRODUCT" : "SELL_PRODUCT";
+                Long productId = config.getProductIds().get(random.nextInt(config.getProductIds().size()));
+                Map<String, String> form = new LinkedHashMap<>();
+                form.put("storeId", user.storeId().toString());
+                form.put("productId", productId.toString());
+                form.put("count", Integer.toString(1 + random.nextInt(config.getMaxCount())));
+                form.put("operationType", operation);
+                request = formPost("/inv/manageProduct", form, user.auth());
+            }
+            send(operation, request, intended, report).whenComplete((response, error) -> inFlight.release());
+        }
+        inFlight.acquire(config.getMaxInFlight());
+        inFlight.release(config.getMaxInFlight());
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String operation, HttpRequest request, long intended,
+                                                         LoadTestReport report) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (error != null) {
+                        report.recordTransportError(operation, latency, error);
+                        throw new IllegalStateException(error);
+                    }
+                    if (response.statusCode() / 100 == 2) {
+                        report.recordSuccess(operation, latency);
+                    } else {
+                        report.recordFailure(operation, latency, response.statusCode(), response.body());
+                        throw new IllegalStateException(operation + ": " + response.statusCode());
+                    }
+                    return response;
+                });
+    }
+
+    // Сессионный режим отдаёт JSESSIONID и редирект на /home, stateless-режим — JSON с токеном
+    private String[] extractAuth(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            String token = readText(response.body(), "token");
+            return token == null ? null : new String[]{"Authorization", "Bearer " + token};
+        }
+        if (response.statusCode() == 302) {
+            String location = response.headers().firstValue("Location").orElse("");
+            if (location.contains("error")) {
+                return null;
+            }
+            return response.headers().allValues("Set-Cookie").stream()
+                    .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                    .map(cookie -> cookie.split(";", 2)[0])
+                    .findFirst()
+                    .map(cookie -> new String[]{"Cookie", cookie})
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    private HttpRequest formPost(String path, Map<String, String> form, String[] auth) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((key, value) -> body.add(encode(key) + "=" + encode(value)));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (auth != null) {
+            builder.header(auth[0], auth[1]);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest get(String path, String[] auth) {
+        return HttpRequest.newBuilder(resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(auth[0], auth[1])
+                .GET()
+                .build();
+    }
+
+    private URI resolve(String path) {
+        return config.getBaseUrl().resolve(path);
+    }
+
+    private Long readLong(String body, String field) {
+        String value = readText(body, field);
+        if (value == null) {
+            throw new IllegalStateException("В ответе нет поля " + field + ": " + body);
+        }
+        return Long.valueOf(value);
+    }
+
+    private String readText(String body, String field) {
+        try {
+            JsonNode node = objectMapper.readTree(body).get(field);
+            return node == null || node.isNull() ? null : node.asText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record VirtualUser(String[] auth, Long storeId) {
+    }
+}
@@ -0,0 +1,108 @@
+package app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LoadTestReport {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final int MAX_MESSAGE_LENGTH = 80;
+    private static final int MAX_ERROR_KEYS = 100;
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public void recordSuccess(String operation, long latencyNanos) {
+        histogram(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        succeeded.incrementAndGet();
+    }
+
+    public void recordFailure(String operation, long latencyNanos, int status, String body) {
+        histogram(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        String key = operation + " " + describeStatus(status);
+        if (errors.size() < MAX_ERROR_KEYS) {
+            key = key + " " + shorten(body);
+        }
+        errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+        failed.incrementAndGet();
+    }
+
+    public void recordTransportError(String operation, long latencyNanos, Throwable error) {
+        histogram(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        errors.computeIfAbsent(operation + " transport " + error.getClass().getSimpleName(), key -> new LongAdder())
+                .increment();
+        failed.incrementAndGet();
+    }
+
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public void print(PrintStream out, String title, double elapsedSeconds) {
+        long total = succeeded.get() + failed.get();
+        out.printf("%n=== %s ===%n", title);
+        out.printf("requests: %d, ok: %d, errors: %d, achieved: %.1f req/s%n",
+                total, succeeded.get(), failed.get(), elapsedSeconds > 0 ? total / elapsedSeconds : 0.0);
+        out.printf("%-16s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf("%-16s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    histogram.getMean() / 1_000_000.0);
+        }
+        if (!errors.isEmpty()) {
+            out.println("errors:");
+            new TreeMap<>(errors).forEach((key, count) -> out.printf("  %8d  %s%n", count.sum(), key));
+        }
+    }
+
+    private Histogram histogram(String operation) {
+        return latencies.computeIfAbsent(operation, key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+    }
+
+    // Статусы соответствуют обработчикам GlobalExceptionHandler
+    static String describeStatus(int status) {
+        return switch (status) {
+            case 400 -> "400 BAD_REQUEST (InvalidInput/InsufficientBalance/ExceedsStorageCapacity/Invalid*)";
+            case 401 -> "401 UNAUTHORIZED";
+            case 403 -> "403 FORBIDDEN (AccessDenied)";
+            case 404 -> "404 NOT_FOUND (NotFound)";
+            case 409 -> "409 CONFLICT (AlreadyExists)";
+            case 500 -> "500 INTERNAL_SERVER_ERROR";
+            default -> Integer.toString(status);
+        };
+    }
+
+    private static String shorten(String body) {
+        if (body == null || body.isBlank()) {
+            return "";
+        }
+        String line = body.replaceAll("\\s+", " ").trim();
+        return "\"" + (line.length() > MAX_MESSAGE_LENGTH ? line.substring(0, MAX_MESSAGE_LENGTH) + "..." : line) + "\"";
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
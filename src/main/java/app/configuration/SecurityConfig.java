@@ -1,16 +1,29 @@
 package app.configuration;
 
+import app.dto.AccessTokenResponse;
+import app.dto.AccountDetails;
+import app.service.AccountDetailsCache;
 import app.service.AccountDetailsService;
+import app.service.AccountTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -23,20 +36,29 @@ public class SecurityConfig {
 
     private final AccountDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final AccountDetailsCache accountDetailsCache;
+    private final int managementPort;
 
-    public SecurityConfig(AccountDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public SecurityConfig(AccountDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                          AccountDetailsCache accountDetailsCache,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.accountDetailsCache = accountDetailsCache;
+        this.managementPort = managementPort;
     }
 
     @Bean
     @Profile("!test")
+    @ConditionalOnProperty(name = "app.security.stateless", havingValue = "false", matchIfMissing = true)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/registration", "/login").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(this::isManagementRequest).permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form
@@ -54,6 +76,48 @@ public class SecurityConfig {
         return http.build();
     }
 
+    @Bean
+    @Profile("!test")
+    @ConditionalOnProperty(name = "app.security.stateless", havingValue = "true")
+    public SecurityFilterChain statelessSecurityFilterChain(HttpSecurity http, AccountTokenService accountTokenService,
+                                                            ObjectMapper objectMapper) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/registration", "/login").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(this::isManagementRequest).permitAll()
+                        .anyRequest().authenticated()
+                )
+                .formLogin(form -> form
+                        .loginPage("/login")
+                        .successHandler((request, response, authentication) -> {
+                            String token = accountTokenService.issueToken((AccountDetails) authentication.getPrincipal());
+                            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                            objectMapper.writeValue(response.getOutputStream(),
+                                    new AccessTokenResponse(token, "Bearer", accountTokenService.getTtlSeconds()));
+                        })
+                        .failureHandler((request, response, exception) ->
+                                response.sendError(HttpStatus.UNAUTHORIZED.value(), exception.getMessage()))
+                        .permitAll()
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
+                .logout(AbstractHttpConfigurer::disable)
+                .addFilterBefore(new TokenAuthenticationFilter(accountTokenService),
+                        UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+
+    // Метрики отдаются только на отдельном порту управления, который не публикуется наружу;
+    // на основном порту /actuator/prometheus требует аутентификации
+    private boolean isManagementRequest(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -72,6 +136,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserCache(accountDetailsCache);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package app.configuration;
+
+import app.utils.SqlStatementStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Считает SQL-запросы, выполненные за один HTTP-запрос, включая его асинхронную часть,
+ * и предупреждает, если их больше {@code max-statements-per-request}. Реактивный путь
+ * {@code /rx} работает через R2DBC и не учитывается.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.sql-tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatementsPerRequest;
+    private final boolean responseHeaders;
+    private final Map<RequestKey, RequestMeters> meters = new ConcurrentHashMap<>();
+
+    public SqlStatementFilter(MeterRegistry meterRegistry,
+                              @Value("${app.sql-tracking.max-statements-per-request:20}") int maxStatementsPerRequest,
+                              @Value("${app.sql-tracking.response-headers:false}") boolean responseHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        HttpServletResponse target = responseHeaders ? new SqlHeadersResponse(response, stats) : response;
+        WebAsyncUtils.getAsyncManager(request)
+                .registerCallableInterceptor(SqlStatementFilter.class.getName(), new AsyncStatements(request, stats));
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            SqlStatementStats.end();
+            // Асинхронный запрос учитывается после завершения асинхронной части, см. AsyncStatements
+            if (!isAsyncStarted(request)) {
+                if (target instanceof SqlHeadersResponse headersResponse) {
+                    headersResponse.writeHeaders();
+                }
+                record(request, stats);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        RequestMeters requestMeters = meters.computeIfAbsent(new RequestKey(request.getMethod(), uri), this::register);
+        requestMeters.statements().record(stats.getStatements());
+        requestMeters.time().record(Duration.ofMillis(stats.getTimeMillis()));
+
+        if (stats.getStatements() > maxStatementsPerRequest) {
+            log.warn("Запрос {} {} выполнил {} SQL-запросов за {} мс (порог {})",
+                    request.getMethod(), uri, stats.getStatements(), stats.getTimeMillis(), maxStatementsPerRequest);
+        }
+    }
+
+    private RequestMeters register(RequestKey key) {
+        return new RequestMeters(
+                DistributionSummary.builder("store.request.sql.statements")
+                        .description("Количество SQL-запросов на один HTTP-запрос")
+                        .tag("method", key.method())
+                        .tag("uri", key.uri())
+                        .register(meterRegistry),
+                Timer.builder("store.request.sql.time")
+                        .description("Суммарное время SQL-запросов на один HTTP-запрос")
+                        .tag("method", key.method())
+                        .tag("uri", key.uri())
+                        .register(meterRegistry));
+    }
+
+    private record RequestKey(String method, String uri) {
+    }
+
+    private record RequestMeters(DistributionSummary statements, Timer time) {
+    }
+
+    // Подключает счётчик запроса к потоку асинхронного исполнителя, в котором выполняется
+    // StreamingResponseBody или Callable, и учитывает запрос после завершения асинхронной части
+    private final class AsyncStatements implements CallableProcessingInterceptor {
+
+        private final HttpServletRequest request;
+        private final SqlStatementStats stats;
+
+        private AsyncStatements(HttpServletRequest request, SqlStatementStats stats) {
+            this.request = request;
+            this.stats = stats;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest webRequest, Callable<T> task) {
+            SqlStatementStats.attach(stats);
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest webRequest, Callable<T> task, Object concurrentResult) {
+            SqlStatementStats.end();
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+            record(request, stats);
+        }
+    }
+
+    // Заголовки выставляются до начала записи тела, поэтому учитывают запросы, выполненные к этому моменту
+    private static final class SqlHeadersResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean written;
+
+        private SqlHeadersResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        private void writeHeaders() {
+            if (!written && !isCommitted()) {
+                written = true;
+                setHeader(STATEMENTS_HEADER, Long.toString(stats.getStatements()));
+                setHeader(TIME_HEADER, Long.toString(stats.getTimeMillis()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
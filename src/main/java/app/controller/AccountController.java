@@ -1,9 +1,12 @@
 package app.controller;
 
 import app.dto.AccountOperationResult;
+import app.dto.BalanceHistoryDTO;
 import app.entity.Account;
 import app.handler.*;
 import app.service.AccountService;
+import app.service.BalanceLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Controller;
@@ -12,13 +15,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.Instant;
+
 @Controller
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceLedgerService balanceLedgerService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, BalanceLedgerService balanceLedgerService) {
         this.accountService = accountService;
+        this.balanceLedgerService = balanceLedgerService;
     }
 
     @GetMapping("/registration")
@@ -93,6 +100,21 @@ public class AccountController {
         }
     }
 
+    @GetMapping("/balanceHistory")
+    public ResponseEntity<?> balanceHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            BalanceHistoryDTO history = balanceLedgerService.getHistory(from, to, limit);
+            return ResponseEntity.ok(history);
+        } catch (InvalidInputException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка сервера: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/logout")
     public String logout() {
         return "redirect:/login?logout";
@@ -1,23 +1,37 @@
 package app.controller;
 
+import app.dto.InventoryOperationRequest;
 import app.dto.InventoryOperationResult;
+import app.dto.ProductCacheStats;
 import app.dto.StoreProductDTO;
+import app.dto.StoreProductPage;
+import app.dto.StoreProductScroll;
 import app.enam.InventoryOperationType;
 import app.entity.Store;
 import app.handler.*;
 import app.repository.StoreRepository;
 import app.service.InventoryService;
+import app.service.InventoryTradeService;
+import app.service.ProductCatalogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,14 +40,23 @@ import java.util.List;
 public class InventoryController {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryController.class);
+    private static final String NDJSON = "application/x-ndjson";
 
     private final InventoryService inventoryService;
+    private final InventoryTradeService inventoryTradeService;
     private final StoreRepository storeRepository;
+    private final ProductCatalogService productCatalogService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService, StoreRepository storeRepository) {
+    public InventoryController(InventoryService inventoryService, InventoryTradeService inventoryTradeService,
+                               StoreRepository storeRepository, ProductCatalogService productCatalogService,
+                               ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.inventoryTradeService = inventoryTradeService;
         this.storeRepository = storeRepository;
+        this.productCatalogService = productCatalogService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/getAllProductsForm")
@@ -57,6 +80,53 @@ public class InventoryController {
         }
     }
 
+    @GetMapping(value = "/exportProducts", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam Long storeId) {
+        log.info("Создан запрос на выгрузку продуктов из магазина id : {}", storeId);
+        ObjectWriter writer = objectMapper.writerFor(StoreProductDTO.class);
+        StreamingResponseBody body = outputStream -> {
+            inventoryService.exportProducts(storeId, product -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(product));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    @GetMapping("/getProductsPage")
+    public ResponseEntity<?> getProductsPage(@RequestParam Long storeId,
+                                             @RequestParam(defaultValue = "0") Integer page,
+                                             @RequestParam(defaultValue = "50") Integer size) {
+        log.info("Создан запрос на получение страницы {} продуктов из магазина id : {}", page, storeId);
+        try {
+            StoreProductPage products = inventoryService.getProductsPage(storeId, page, size);
+            return ResponseEntity.ok(products);
+        } catch (NotFoundException | InvalidInputException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/scrollProducts")
+    public ResponseEntity<?> scrollProducts(@RequestParam Long storeId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") Integer size) {
+        try {
+            StoreProductScroll products = inventoryService.scrollProducts(storeId, cursor, size);
+            return ResponseEntity.ok(products);
+        } catch (NotFoundException | InvalidInputException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/manageProductForm")
     public String manageProductForm(Model model) {
         model.addAttribute("operationTypes", InventoryOperationType.values());
@@ -71,13 +141,56 @@ public class InventoryController {
             @RequestParam InventoryOperationType operationType
             ) {
         try {
-            InventoryOperationResult result = inventoryService.manageProduct(storeId, productId, count, operationType);
+            InventoryOperationResult result = inventoryTradeService.manageProduct(storeId, productId, count, operationType);
+            return ResponseEntity.ok(result);
+        } catch (NotFoundException | AccessDeniedException | InsufficientBalanceException |
+                 ExceedsStorageCapacityException  | InvalidInputException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (TradeConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/manageProductAtomic")
+    public ResponseEntity<?> manageProductAtomic(
+            @RequestParam Long storeId,
+            @RequestParam Long productId,
+            @RequestParam Integer count,
+            @RequestParam InventoryOperationType operationType
+            ) {
+        try {
+            InventoryOperationResult result = inventoryTradeService.manageProductAtomic(storeId, productId, count, operationType);
             return ResponseEntity.ok(result);
         } catch (NotFoundException | AccessDeniedException | InsufficientBalanceException |
                  ExceedsStorageCapacityException  | InvalidInputException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (TradeConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
         }
     }
+
+    @PostMapping("/manageProducts")
+    public ResponseEntity<?> manageProducts(@RequestBody List<InventoryOperationRequest> operations) {
+        log.info("Создан пакетный запрос на {} операций", operations.size());
+        try {
+            List<InventoryOperationResult> results = inventoryTradeService.manageProducts(operations);
+            return ResponseEntity.ok(results);
+        } catch (NotFoundException | AccessDeniedException | InsufficientBalanceException |
+                 ExceedsStorageCapacityException  | InvalidInputException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (TradeConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/productCacheStats")
+    public ResponseEntity<ProductCacheStats> productCacheStats() {
+        return ResponseEntity.ok(productCatalogService.getStats());
+    }
 }
\ No newline at end of file
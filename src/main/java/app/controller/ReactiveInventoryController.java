@@ -0,0 +1,41 @@
+package app.controller;
+
+import app.dto.StoreProductDTO;
+import app.handler.NotFoundException;
+import app.repository.ReactiveInventoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Controller
+@RequestMapping("/rx/inv")
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveInventoryController {
+
+    private final ReactiveInventoryRepository reactiveInventoryRepository;
+
+    @Autowired
+    public ReactiveInventoryController(ReactiveInventoryRepository reactiveInventoryRepository) {
+        this.reactiveInventoryRepository = reactiveInventoryRepository;
+    }
+
+    @GetMapping("/getAllProducts")
+    @ResponseBody
+    public Flux<StoreProductDTO> getAllProducts(@RequestParam Long storeId) {
+        return reactiveInventoryRepository.findProductsByStoreId(storeId)
+                .switchIfEmpty(Flux.error(() -> new NotFoundException("Магазин пуст или его не существует")));
+    }
+
+    @GetMapping("/getProduct")
+    @ResponseBody
+    public Mono<StoreProductDTO> getProduct(@RequestParam Long storeId, @RequestParam Long productId) {
+        return reactiveInventoryRepository.findProductByStoreIdAndProductId(storeId, productId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Продукт в магазине не найден")));
+    }
+}
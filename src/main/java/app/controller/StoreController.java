@@ -1,6 +1,7 @@
 package app.controller;
 
 import app.dto.StoreOperationResult;
+import app.dto.StoreStatsDTO;
 import app.enam.StoreOperationType;
 import app.entity.Store;
 import app.handler.AccessDeniedException;
@@ -8,9 +9,11 @@ import app.handler.AlreadyExistsException;
 import app.handler.InvalidInputException;
 import app.handler.NotFoundException;
 import app.service.StoreService;
+import app.service.StoreStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -23,10 +26,12 @@ public class StoreController {
     private static final Logger log = LoggerFactory.getLogger(StoreController.class);
 
     private final StoreService storeService;
+    private final StoreStatsService storeStatsService;
 
     @Autowired
-    public StoreController(StoreService storeService) {
+    public StoreController(StoreService storeService, StoreStatsService storeStatsService) {
         this.storeService = storeService;
+        this.storeStatsService = storeStatsService;
     }
 
     @GetMapping("/createStoreForm")
@@ -65,4 +70,16 @@ public class StoreController {
         }
     }
 
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getStats(@PathVariable Long id) {
+        try {
+            StoreStatsDTO stats = storeStatsService.getStats(id);
+            return ResponseEntity.ok(stats);
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Внутренняя ошибка: " + e.getMessage());
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class AccessTokenResponse {
+    @JsonProperty("token")
+    private String token;
+    @JsonProperty("tokenType")
+    private String tokenType;
+    @JsonProperty("expiresIn")
+    private long expiresIn;
+
+    public AccessTokenResponse(String token, String tokenType, long expiresIn) {
+        this.token = token;
+        this.tokenType = tokenType;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,7 @@
+package app.dto;
+
+public interface AccountCredentialsView {
+    Long getId();
+    String getPassword();
+    boolean isActive();
+}
@@ -0,0 +1,38 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class BalanceHistoryDTO {
+    @JsonProperty("balance")
+    private BigDecimal balance;
+    @JsonProperty("movements")
+    private List<BalanceMovementDTO> movements;
+
+    public BalanceHistoryDTO() {
+
+    }
+
+    public BalanceHistoryDTO(BigDecimal balance, List<BalanceMovementDTO> movements) {
+        this.balance = balance;
+        this.movements = movements;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public List<BalanceMovementDTO> getMovements() {
+        return movements;
+    }
+
+    public void setMovements(List<BalanceMovementDTO> movements) {
+        this.movements = movements;
+    }
+}
@@ -0,0 +1,9 @@
+package app.dto;
+
+import java.math.BigDecimal;
+
+public interface BalanceMismatchView {
+    Long getAccountId();
+    BigDecimal getAccountBalance();
+    BigDecimal getLedgerBalance();
+}
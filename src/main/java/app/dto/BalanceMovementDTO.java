@@ -0,0 +1,95 @@
+package app.dto;
+
+import app.enam.LedgerEntryType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class BalanceMovementDTO {
+    @JsonProperty("id")
+    private Long id;
+    @JsonProperty("amount")
+    private BigDecimal amount;
+    @JsonProperty("type")
+    private LedgerEntryType type;
+    @JsonProperty("storeId")
+    private Long storeId;
+    @JsonProperty("productId")
+    private Long productId;
+    @JsonProperty("quantity")
+    private Integer quantity;
+    @JsonProperty("createdAt")
+    private Instant createdAt;
+
+    public BalanceMovementDTO() {
+
+    }
+
+    public BalanceMovementDTO(Long id, BigDecimal amount, LedgerEntryType type, Long storeId, Long productId,
+                              Integer quantity, Instant createdAt) {
+        this.id = id;
+        this.amount = amount;
+        this.type = type;
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LedgerEntryType getType() {
+        return type;
+    }
+
+    public void setType(LedgerEntryType type) {
+        this.type = type;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,53 @@
+package app.dto;
+
+import app.enam.InventoryOperationType;
+
+public class InventoryOperationRequest {
+    private Long storeId;
+    private Long productId;
+    private Integer count;
+    private InventoryOperationType operationType;
+
+    public InventoryOperationRequest() {
+
+    }
+
+    public InventoryOperationRequest(Long storeId, Long productId, Integer count, InventoryOperationType operationType) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.count = count;
+        this.operationType = operationType;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public InventoryOperationType getOperationType() {
+        return operationType;
+    }
+
+    public void setOperationType(InventoryOperationType operationType) {
+        this.operationType = operationType;
+    }
+}
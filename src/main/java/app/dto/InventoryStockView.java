@@ -0,0 +1,7 @@
+package app.dto;
+
+public interface InventoryStockView {
+    Integer getQuantity();
+    String getStoreName();
+    String getUsername();
+}
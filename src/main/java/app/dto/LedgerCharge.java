@@ -0,0 +1,27 @@
+package app.dto;
+
+import java.math.BigDecimal;
+
+public class LedgerCharge {
+    private final BigDecimal amount;
+    private final BigDecimal balance;
+    private final String productName;
+
+    public LedgerCharge(BigDecimal amount, BigDecimal balance, String productName) {
+        this.amount = amount;
+        this.balance = balance;
+        this.productName = productName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+}
@@ -0,0 +1,8 @@
+package app.dto;
+
+import java.math.BigDecimal;
+
+public interface LedgerEntryView {
+    BigDecimal getAmount();
+    String getProductName();
+}
@@ -10,6 +10,8 @@ public class StoreOperationResult {
     private String ownerName;
     @JsonProperty("storeName")
     private String storeName;
+    @JsonProperty("storeId")
+    private Long storeId;
 
     public StoreOperationResult(StoreOperationType name, String ownerName, String storeName) {
         this.operationName = name;
@@ -17,6 +19,11 @@ public class StoreOperationResult {
         this.storeName = storeName;
     }
 
+    public StoreOperationResult(StoreOperationType name, String ownerName, String storeName, Long storeId) {
+        this(name, ownerName, storeName);
+        this.storeId = storeId;
+    }
+
     public StoreOperationType getOperationName() {
         return operationName;
     }
@@ -40,4 +47,12 @@ public class StoreOperationResult {
     public void setStoreName(String storeName) {
         this.storeName = storeName;
     }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
 }
\ No newline at end of file
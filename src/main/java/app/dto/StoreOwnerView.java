@@ -0,0 +1,6 @@
+package app.dto;
+
+public interface StoreOwnerView {
+    String getStoreName();
+    String getUsername();
+}
@@ -1,16 +1,15 @@
 package app.dto;
 
+import app.utils.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.math.BigDecimal;
-
 public class StoreProductDTO {
     @JsonProperty("productId")
     private Long id;
     @JsonProperty("productName")
     private String name;
     @JsonProperty("price")
-    private BigDecimal price;
+    private Money price;
     @JsonProperty("quantity")
     private Integer quantity;
 
@@ -18,7 +17,7 @@ public class StoreProductDTO {
 
     }
 
-    public StoreProductDTO(Long id, String name, BigDecimal price, Integer quantity) {
+    public StoreProductDTO(Long id, String name, Money price, Integer quantity) {
         this.id = id;
         this.name = name;
         this.price = price;
@@ -41,11 +40,11 @@ public class StoreProductDTO {
         this.name = name;
     }
 
-    public BigDecimal getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(BigDecimal price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -0,0 +1,71 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class StoreProductPage {
+    @JsonProperty("products")
+    private List<StoreProductDTO> products;
+    @JsonProperty("page")
+    private Integer page;
+    @JsonProperty("size")
+    private Integer size;
+    @JsonProperty("totalElements")
+    private Long totalElements;
+    @JsonProperty("totalPages")
+    private Integer totalPages;
+
+    public StoreProductPage() {
+
+    }
+
+    public StoreProductPage(List<StoreProductDTO> products, Integer page, Integer size,
+                            Long totalElements, Integer totalPages) {
+        this.products = products;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public List<StoreProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<StoreProductDTO> products) {
+        this.products = products;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+}
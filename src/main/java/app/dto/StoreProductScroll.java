@@ -0,0 +1,37 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class StoreProductScroll {
+    @JsonProperty("products")
+    private List<StoreProductDTO> products;
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    public StoreProductScroll() {
+
+    }
+
+    public StoreProductScroll(List<StoreProductDTO> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<StoreProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<StoreProductDTO> products) {
+        this.products = products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
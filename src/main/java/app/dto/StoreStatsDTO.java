@@ -0,0 +1,71 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class StoreStatsDTO {
+    @JsonProperty("storeId")
+    private Long storeId;
+    @JsonProperty("skuCount")
+    private Integer skuCount;
+    @JsonProperty("totalQuantity")
+    private Long totalQuantity;
+    @JsonProperty("totalValue")
+    private BigDecimal totalValue;
+    @JsonProperty("updatedAt")
+    private Instant updatedAt;
+
+    public StoreStatsDTO() {
+
+    }
+
+    public StoreStatsDTO(Long storeId, Integer skuCount, Long totalQuantity, BigDecimal totalValue, Instant updatedAt) {
+        this.storeId = storeId;
+        this.skuCount = skuCount;
+        this.totalQuantity = totalQuantity;
+        this.totalValue = totalValue;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Integer getSkuCount() {
+        return skuCount;
+    }
+
+    public void setSkuCount(Integer skuCount) {
+        this.skuCount = skuCount;
+    }
+
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(Long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(BigDecimal totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,11 @@
+package app.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public interface StoreStatsShardView {
+    Long getSkuCount();
+    Long getTotalQuantity();
+    BigDecimal getTotalValue();
+    Instant getUpdatedAt();
+}
@@ -1,5 +1,6 @@
 package app.enam;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum InventoryOperationType {
@@ -17,4 +18,14 @@ public enum InventoryOperationType {
     public String getName() {
         return name;
     }
+
+    @JsonCreator
+    public static InventoryOperationType fromValue(String value) {
+        for (InventoryOperationType type : values()) {
+            if (type.name().equals(value) || type.name.equals(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип операции: " + value);
+    }
 }
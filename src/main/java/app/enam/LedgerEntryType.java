@@ -0,0 +1,21 @@
+package app.enam;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum LedgerEntryType {
+
+    OPENING_BALANCE("Начальный баланс"),
+    BUY_PRODUCT("Покупка продукта"),
+    SELL_PRODUCT("Продажа продукта");
+
+    private final String name;
+
+    LedgerEntryType(String name) {
+        this.name = name;
+    }
+
+    @JsonValue
+    public String getName() {
+        return name;
+    }
+}
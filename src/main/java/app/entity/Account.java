@@ -1,11 +1,13 @@
 package app.entity;
 
+import app.utils.Money;
+import app.utils.MoneyConverter;
 import jakarta.persistence.*;
 
-import java.math.BigDecimal;
 import java.util.Collection;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_account_username", columnNames = "username"))
 public class Account {
 
     @Id
@@ -13,7 +15,8 @@ public class Account {
     private Long id;
     private String username;
     private String password;
-    private BigDecimal balance;
+    @Convert(converter = MoneyConverter.class)
+    private Money balance;
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "account_roles",
@@ -22,6 +25,9 @@ public class Account {
     )
     private Collection<Role> roles;
     private boolean active;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 
     public Account() {
     }
@@ -31,7 +37,7 @@ public class Account {
         this.password = password;
     }
 
-    public Account(Long id, String username, String password, BigDecimal balance, Collection<Role> roles, boolean active) {
+    public Account(Long id, String username, String password, Money balance, Collection<Role> roles, boolean active) {
         this.id = id;
         this.username = username;
         this.password = password;
@@ -64,11 +70,11 @@ public class Account {
         this.password = password;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
@@ -87,4 +93,12 @@ public class Account {
     public void setActive(boolean active) {
         this.active = active;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
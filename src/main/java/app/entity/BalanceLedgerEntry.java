@@ -0,0 +1,109 @@
+package app.entity;
+
+import app.enam.LedgerEntryType;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "balance_ledger",
+        indexes = @Index(name = "idx_balance_ledger_account", columnList = "account_id, id"))
+public class BalanceLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(nullable = false)
+    private BigDecimal amount;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private LedgerEntryType entryType;
+    @Column(name = "store_id")
+    private Long storeId;
+    @Column(name = "product_id")
+    private Long productId;
+    private Integer quantity;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public BalanceLedgerEntry() {
+    }
+
+    public BalanceLedgerEntry(Long accountId, BigDecimal amount, LedgerEntryType entryType,
+                              Long storeId, Long productId, Integer quantity, Instant createdAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.entryType = entryType;
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LedgerEntryType getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(LedgerEntryType entryType) {
+        this.entryType = entryType;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
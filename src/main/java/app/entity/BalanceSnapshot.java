@@ -0,0 +1,74 @@
+package app.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "balance_snapshot",
+        indexes = @Index(name = "idx_balance_snapshot_account", columnList = "account_id, last_entry_id"))
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+    @Column(nullable = false)
+    private BigDecimal balance;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public BalanceSnapshot() {
+    }
+
+    public BalanceSnapshot(Long accountId, Long lastEntryId, BigDecimal balance, Instant createdAt) {
+        this.accountId = accountId;
+        this.lastEntryId = lastEntryId;
+        this.balance = balance;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(Long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -5,6 +5,10 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_inventory_store_product", columnList = "store, product", unique = true),
+        @Index(name = "idx_inventory_product", columnList = "product")
+})
 public class Inventory {
 
     @Id
@@ -19,6 +23,9 @@ public class Inventory {
     @Min(value = 0, message = "Количество не может быть отрицательным")
     @Max(value = 69, message = "Количество не может превышать 69ти")
     private Integer quantity;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 
     public Inventory() {
     }
@@ -61,4 +68,12 @@ public class Inventory {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package app.entity;
 import jakarta.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_store_name", columnNames = "name"),
+        indexes = @Index(name = "idx_store_owner", columnList = "owner"))
 public class Store {
 
     @Id
@@ -0,0 +1,74 @@
+package app.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "store_stats")
+public class StoreStats {
+
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+    @Column(name = "sku_count", nullable = false)
+    private Integer skuCount;
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+    @Column(name = "total_value", nullable = false)
+    private BigDecimal totalValue;
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public StoreStats() {
+    }
+
+    public StoreStats(Long storeId, Integer skuCount, Long totalQuantity, BigDecimal totalValue, Instant updatedAt) {
+        this.storeId = storeId;
+        this.skuCount = skuCount;
+        this.totalQuantity = totalQuantity;
+        this.totalValue = totalValue;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Integer getSkuCount() {
+        return skuCount;
+    }
+
+    public void setSkuCount(Integer skuCount) {
+        this.skuCount = skuCount;
+    }
+
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(Long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(BigDecimal totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
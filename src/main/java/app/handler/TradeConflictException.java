@@ -0,0 +1,7 @@
+package app.handler;
+
+public class TradeConflictException extends RuntimeException {
+    public TradeConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
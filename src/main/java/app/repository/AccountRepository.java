@@ -1,8 +1,13 @@
 package app.repository;
 
+import app.dto.AccountCredentialsView;
 import app.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,4 +15,10 @@ import java.util.Optional;
 public interface AccountRepository extends JpaRepository<Account, java.lang.Long> {
     boolean existsByUsername(String name);
     Optional<Account> findByUsername(String username);
+    Optional<AccountCredentialsView> findCredentialsByUsername(String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Account a SET a.password = :password, a.version = a.version + 1 WHERE a.id = :accountId")
+    int updatePassword(@Param("accountId") Long accountId, @Param("password") String password);
 }
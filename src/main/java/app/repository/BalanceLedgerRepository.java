@@ -0,0 +1,77 @@
+package app.repository;
+
+import app.dto.BalanceMismatchView;
+import app.dto.LedgerEntryView;
+import app.entity.BalanceLedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceLedgerRepository extends JpaRepository<BalanceLedgerEntry, Long> {
+
+    List<BalanceLedgerEntry> findByAccountIdAndCreatedAtBetweenOrderByIdDesc(Long accountId, Instant from, Instant to,
+                                                                            Limit limit);
+
+    @Query("SELECT coalesce(sum(e.amount), 0) FROM BalanceLedgerEntry e WHERE e.accountId = :accountId AND e.id > :afterId")
+    BigDecimal sumAfter(@Param("accountId") Long accountId, @Param("afterId") Long afterId);
+
+    /**
+     * Записывает движение по текущей цене продукта из базы и возвращает записанную сумму.
+     * Пустой результат означает, что продукта нет.
+     */
+    @Query(value = """
+            INSERT INTO balance_ledger (account_id, amount, entry_type, store_id, product_id, quantity, created_at)
+            SELECT :accountId, -p.price * :quantityDelta, :entryType, :storeId, p.id, abs(:quantityDelta), now()
+            FROM product p
+            WHERE p.id = :productId
+            RETURNING amount AS amount, (SELECT p.name FROM product p WHERE p.id = product_id) AS productName
+            """, nativeQuery = true)
+    Optional<LedgerEntryView> recordTrade(@Param("accountId") Long accountId,
+                                          @Param("storeId") Long storeId,
+                                          @Param("productId") Long productId,
+                                          @Param("quantityDelta") int quantityDelta,
+                                          @Param("entryType") String entryType);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_ledger (account_id, amount, entry_type, store_id, product_id, quantity, created_at)
+            SELECT a.id, a.balance, 'OPENING_BALANCE', NULL, NULL, NULL, now()
+            FROM account a
+            WHERE a.balance IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM balance_ledger l WHERE l.account_id = a.id)
+            """, nativeQuery = true)
+    int backfillOpeningBalances();
+
+    /**
+     * Сверяет {@code account.balance} — копию последнего снимка — с суммой записей журнала до этого
+     * снимка включительно. Аккаунты без снимков не проверяются: их баланс ещё не обновлялся.
+     */
+    @Query(value = """
+            WITH latest AS (
+                SELECT DISTINCT ON (account_id) account_id, last_entry_id
+                FROM balance_snapshot
+                ORDER BY account_id, last_entry_id DESC
+            ), ledger AS (
+                SELECT a.id AS account_id,
+                       a.balance AS account_balance,
+                       coalesce((
+                           SELECT sum(l.amount) FROM balance_ledger l
+                           WHERE l.account_id = a.id AND l.id <= s.last_entry_id
+                       ), 0) AS ledger_balance
+                FROM account a
+                JOIN latest s ON s.account_id = a.id
+            )
+            SELECT account_id AS accountId, account_balance AS accountBalance, ledger_balance AS ledgerBalance
+            FROM ledger
+            WHERE account_balance <> ledger_balance
+            ORDER BY account_id
+            """, nativeQuery = true)
+    List<BalanceMismatchView> findMismatches();
+}
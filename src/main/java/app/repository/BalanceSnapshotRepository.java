@@ -0,0 +1,71 @@
+package app.repository;
+
+import app.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByLastEntryIdDesc(Long accountId);
+
+    /**
+     * Сворачивает записи журнала в новый снимок для каждого аккаунта, у которого после последнего
+     * снимка появились движения. В снимок попадает только непрерывный по id префикс записей,
+     * созданных до {@code watermark}. Отставание watermark должно превышать длительность самой долгой
+     * транзакции, иначе запись, зафиксированная позже записи с большим id, не попадёт в баланс.
+     */
+    @Modifying
+    @Query(value = """
+            WITH latest AS (
+                SELECT DISTINCT ON (account_id) account_id, last_entry_id, balance
+                FROM balance_snapshot
+                ORDER BY account_id, last_entry_id DESC
+            )
+            INSERT INTO balance_snapshot (account_id, last_entry_id, balance, created_at)
+            SELECT l.account_id, max(l.id), coalesce(max(s.balance), 0) + sum(l.amount), now()
+            FROM balance_ledger l
+            LEFT JOIN latest s ON s.account_id = l.account_id
+            WHERE l.id > coalesce(s.last_entry_id, 0)
+              AND NOT EXISTS (
+                  SELECT 1 FROM balance_ledger later
+                  WHERE later.account_id = l.account_id
+                    AND later.id > coalesce(s.last_entry_id, 0)
+                    AND later.id <= l.id
+                    AND later.created_at >= :watermark
+              )
+            GROUP BY l.account_id
+            """, nativeQuery = true)
+    int takeSnapshots(@Param("watermark") Instant watermark);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM balance_snapshot bs
+            WHERE EXISTS (
+                SELECT 1 FROM balance_snapshot newer
+                WHERE newer.account_id = bs.account_id AND newer.last_entry_id > bs.last_entry_id
+            )
+            """, nativeQuery = true)
+    int pruneSuperseded();
+
+    /**
+     * Переносит последний снимок в {@code account.balance}. Торговые операции эту колонку не меняют,
+     * поэтому версия строки не увеличивается.
+     */
+    @Modifying
+    @Query(value = """
+            WITH latest AS (
+                SELECT DISTINCT ON (account_id) account_id, balance
+                FROM balance_snapshot
+                ORDER BY account_id, last_entry_id DESC
+            )
+            UPDATE account a SET balance = s.balance
+            FROM latest s
+            WHERE s.account_id = a.id AND a.balance IS DISTINCT FROM s.balance
+            """, nativeQuery = true)
+    int refreshAccountBalances();
+}
@@ -1,18 +1,97 @@
 package app.repository;
 
+import app.dto.InventoryStockView;
+import app.dto.StoreProductDTO;
 import app.entity.Inventory;
 import app.entity.Product;
 import app.entity.Store;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     List<Inventory> findByStoreId(Long storeId);
     Optional<Inventory> findByStoreAndProduct(Store store, Product product);
+    List<Inventory> findByStoreIdInAndProductIdIn(Collection<Long> storeIds, Collection<Long> productIds);
 
-}
\ No newline at end of file
+    @Query("""
+            SELECT new app.dto.StoreProductDTO(p.id, p.name, p.price, i.quantity)
+            FROM Inventory i JOIN i.product p
+            WHERE i.store.id = :storeId
+            ORDER BY p.id
+            """)
+    List<StoreProductDTO> findProductsByStoreId(@Param("storeId") Long storeId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new app.dto.StoreProductDTO(p.id, p.name, p.price, i.quantity)
+            FROM Inventory i JOIN i.product p
+            WHERE i.store.id = :storeId
+            ORDER BY p.id
+            """)
+    Stream<StoreProductDTO> streamProductsByStoreId(@Param("storeId") Long storeId);
+
+    @Query(value = """
+            SELECT new app.dto.StoreProductDTO(p.id, p.name, p.price, i.quantity)
+            FROM Inventory i JOIN i.product p
+            WHERE i.store.id = :storeId
+            ORDER BY p.id
+            """,
+            countQuery = "SELECT count(i) FROM Inventory i WHERE i.store.id = :storeId")
+    Page<StoreProductDTO> findProductsByStoreId(@Param("storeId") Long storeId, Pageable pageable);
+
+    @Query("""
+            SELECT new app.dto.StoreProductDTO(p.id, p.name, p.price, i.quantity)
+            FROM Inventory i JOIN i.product p
+            WHERE i.store.id = :storeId AND p.id > :afterProductId
+            ORDER BY p.id
+            """)
+    List<StoreProductDTO> findProductsByStoreIdAfter(@Param("storeId") Long storeId,
+                                                     @Param("afterProductId") Long afterProductId,
+                                                     Pageable pageable);
+
+    @Query(value = """
+            UPDATE inventory i SET quantity = i.quantity + :delta, version = i.version + 1
+            FROM store s, account a
+            WHERE i.store = :storeId AND i.product = :productId
+              AND s.id = i.store AND s.owner = :accountId AND a.id = s.owner
+              AND i.quantity + :delta BETWEEN 0 AND 69
+            RETURNING i.quantity AS quantity, s.name AS storeName, a.username AS username
+            """, nativeQuery = true)
+    Optional<InventoryStockView> adjustQuantity(@Param("accountId") Long accountId,
+                                                @Param("storeId") Long storeId,
+                                                @Param("productId") Long productId,
+                                                @Param("delta") Integer delta);
+
+    @Query(value = """
+            INSERT INTO inventory (store, product, quantity, version)
+            SELECT s.id, :productId, :quantity, 0 FROM store s
+            WHERE s.id = :storeId AND s.owner = :accountId
+              AND :quantity BETWEEN 1 AND 69
+              AND EXISTS (SELECT 1 FROM product p WHERE p.id = :productId)
+              AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.store = s.id AND i.product = :productId)
+            RETURNING quantity AS quantity, (SELECT name FROM store WHERE id = :storeId) AS storeName,
+                      (SELECT username FROM account WHERE id = :accountId) AS username
+            """, nativeQuery = true)
+    Optional<InventoryStockView> insertQuantity(@Param("accountId") Long accountId,
+                                                @Param("storeId") Long storeId,
+                                                @Param("productId") Long productId,
+                                                @Param("quantity") Integer quantity);
+
+}
@@ -0,0 +1,54 @@
+package app.repository;
+
+import app.dto.StoreProductDTO;
+import app.utils.Money;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@Repository
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveInventoryRepository {
+
+    private static final String SELECT_STORE_PRODUCTS = """
+            SELECT p.id, p.name, p.price, i.quantity
+            FROM inventory i JOIN product p ON p.id = i.product
+            WHERE i.store = :storeId
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveInventoryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<StoreProductDTO> findProductsByStoreId(Long storeId) {
+        return databaseClient.sql(SELECT_STORE_PRODUCTS + "ORDER BY p.id")
+                .bind("storeId", storeId)
+                .map(ReactiveInventoryRepository::toStoreProduct)
+                .all();
+    }
+
+    public Mono<StoreProductDTO> findProductByStoreIdAndProductId(Long storeId, Long productId) {
+        return databaseClient.sql(SELECT_STORE_PRODUCTS + "AND p.id = :productId")
+                .bind("storeId", storeId)
+                .bind("productId", productId)
+                .map(ReactiveInventoryRepository::toStoreProduct)
+                .one();
+    }
+
+    private static StoreProductDTO toStoreProduct(Row row) {
+        return new StoreProductDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                Money.of(row.get("price", BigDecimal.class)),
+                row.get("quantity", Integer.class));
+    }
+}
@@ -1,7 +1,10 @@
 package app.repository;
 
+import app.dto.StoreOwnerView;
 import app.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -11,4 +14,8 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     Optional<Store> findById(Long storeId);
 
     Optional<Store> findByName(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT s.name AS storeName, a.username AS username FROM Store s JOIN s.owner a " +
+            "WHERE s.id = :storeId AND a.id = :accountId")
+    Optional<StoreOwnerView> findOwnedStore(@Param("storeId") Long storeId, @Param("accountId") Long accountId);
+}
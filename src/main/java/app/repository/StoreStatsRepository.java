@@ -0,0 +1,121 @@
+package app.repository;
+
+import app.dto.StoreStatsShardView;
+import app.entity.StoreStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+/**
+ * Пересчёт пишет в store_stats остатки магазина за вычетом шардов, прочитанных в том же снимке:
+ * дельты, зафиксированные после снимка, остаются в шардах и не теряются и не учитываются дважды.
+ */
+public interface StoreStatsRepository extends JpaRepository<StoreStats, Long> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stats_shard (store_id, shard, sku_count, total_quantity, total_value, updated_at)
+            SELECT :storeId, :shard, :skuDelta, :quantityDelta, :quantityDelta * p.price, now()
+            FROM product p
+            WHERE p.id = :productId
+            ON CONFLICT (store_id, shard) DO UPDATE SET
+                sku_count = store_stats_shard.sku_count + EXCLUDED.sku_count,
+                total_quantity = store_stats_shard.total_quantity + EXCLUDED.total_quantity,
+                total_value = store_stats_shard.total_value + EXCLUDED.total_value,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int applyDelta(@Param("storeId") Long storeId,
+                   @Param("shard") int shard,
+                   @Param("productId") Long productId,
+                   @Param("skuDelta") int skuDelta,
+                   @Param("quantityDelta") int quantityDelta);
+
+    @Query(value = """
+            SELECT coalesce(sum(sku_count), 0) AS skuCount,
+                   coalesce(sum(total_quantity), 0) AS totalQuantity,
+                   coalesce(sum(total_value), 0) AS totalValue,
+                   max(updated_at) AS updatedAt
+            FROM store_stats_shard
+            WHERE store_id = :storeId
+            """, nativeQuery = true)
+    StoreStatsShardView sumShards(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stats (store_id, sku_count, total_quantity, total_value, updated_at)
+            VALUES (:storeId, 0, 0, 0, now())
+            ON CONFLICT (store_id) DO NOTHING
+            """, nativeQuery = true)
+    int initialize(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stats (store_id, sku_count, total_quantity, total_value, updated_at)
+            SELECT s.id,
+                   count(i.id) FILTER (WHERE i.quantity > 0)
+                       - coalesce((SELECT sum(sh.sku_count) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity), 0)
+                       - coalesce((SELECT sum(sh.total_quantity) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity * p.price), 0)
+                       - coalesce((SELECT sum(sh.total_value) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   now()
+            FROM store s
+            LEFT JOIN inventory i ON i.store = s.id
+            LEFT JOIN product p ON p.id = i.product
+            WHERE NOT EXISTS (SELECT 1 FROM store_stats st WHERE st.store_id = s.id)
+            GROUP BY s.id
+            ON CONFLICT (store_id) DO NOTHING
+            """, nativeQuery = true)
+    int backfillMissing();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stats (store_id, sku_count, total_quantity, total_value, updated_at)
+            SELECT s.id,
+                   count(i.id) FILTER (WHERE i.quantity > 0)
+                       - coalesce((SELECT sum(sh.sku_count) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity), 0)
+                       - coalesce((SELECT sum(sh.total_quantity) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity * p.price), 0)
+                       - coalesce((SELECT sum(sh.total_value) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   now()
+            FROM store s
+            LEFT JOIN inventory i ON i.store = s.id
+            LEFT JOIN product p ON p.id = i.product
+            WHERE s.id IN (:storeIds)
+            GROUP BY s.id
+            ON CONFLICT (store_id) DO UPDATE SET
+                sku_count = EXCLUDED.sku_count,
+                total_quantity = EXCLUDED.total_quantity,
+                total_value = EXCLUDED.total_value,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int recompute(@Param("storeIds") Collection<Long> storeIds);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stats (store_id, sku_count, total_quantity, total_value, updated_at)
+            SELECT s.id,
+                   count(i.id) FILTER (WHERE i.quantity > 0)
+                       - coalesce((SELECT sum(sh.sku_count) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity), 0)
+                       - coalesce((SELECT sum(sh.total_quantity) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   coalesce(sum(i.quantity * p.price), 0)
+                       - coalesce((SELECT sum(sh.total_value) FROM store_stats_shard sh WHERE sh.store_id = s.id), 0),
+                   now()
+            FROM store s
+            LEFT JOIN inventory i ON i.store = s.id
+            LEFT JOIN product p ON p.id = i.product
+            WHERE s.id IN (SELECT store FROM inventory WHERE product = :productId)
+            GROUP BY s.id
+            ON CONFLICT (store_id) DO UPDATE SET
+                sku_count = EXCLUDED.sku_count,
+                total_quantity = EXCLUDED.total_quantity,
+                total_value = EXCLUDED.total_value,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int recomputeStoresWithProduct(@Param("productId") Long productId);
+}
@@ -0,0 +1,83 @@
+package app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class AccountDetailsCache implements UserCache {
+
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<String, CachedUser> cache;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public AccountDetailsCache(@Value("${app.auth-cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${app.auth-cache.max-size:10000}") int maxSize) {
+        this(Duration.ofSeconds(ttlSeconds), maxSize, Clock.systemUTC());
+    }
+
+    public AccountDetailsCache(Duration ttl, int maxSize, Clock clock) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > AccountDetailsCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        lock.lock();
+        try {
+            CachedUser cached = cache.get(username);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt().isBefore(clock.instant())) {
+                cache.remove(username);
+                return null;
+            }
+            return cached.user();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        lock.lock();
+        try {
+            cache.put(user.getUsername(), new CachedUser(user, clock.instant().plus(ttl)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        lock.lock();
+        try {
+            cache.remove(username);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record CachedUser(UserDetails user, Instant expiresAt) {
+    }
+}
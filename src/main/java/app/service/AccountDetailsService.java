@@ -5,32 +5,36 @@ import app.entity.Account;
 import app.entity.Role;
 import app.repository.AccountRepository;
 import app.repository.RoleRepository;
+import app.utils.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.Collections;
 
 @Service
-public class AccountDetailsService  implements UserDetailsService {
+public class AccountDetailsService  implements UserDetailsService, UserDetailsPasswordService {
 
     private final AccountRepository accountRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccountDetailsCache accountDetailsCache;
 
     @Autowired
     public AccountDetailsService(
             AccountRepository accountRepository,
             RoleRepository roleRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            AccountDetailsCache accountDetailsCache) {
         this.accountRepository = accountRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.accountDetailsCache = accountDetailsCache;
     }
 
     @Transactional
@@ -38,7 +42,7 @@ public class AccountDetailsService  implements UserDetailsService {
         Role userRole = roleRepository.findByName("ROLE_USER");
         user.setRoles(Collections.singleton(userRole));
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setBalance(new BigDecimal(5000));
+        user.setBalance(Money.of(5000));
         user.setActive(true);
         accountRepository.save(user);
     }
@@ -52,4 +56,15 @@ public class AccountDetailsService  implements UserDetailsService {
         }
         return new AccountDetails(account);
     }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Account account = accountRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь с таким именем не найден: " + user.getUsername()));
+        account.setPassword(newPassword);
+        accountRepository.save(account);
+        accountDetailsCache.removeUserFromCache(account.getUsername());
+        return new AccountDetails(account);
+    }
 }
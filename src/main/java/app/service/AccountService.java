@@ -1,12 +1,17 @@
 package app.service;
 
+import app.dto.AccountCredentialsView;
 import app.dto.AccountOperationResult;
 import app.enam.AccountOperationType;
+import app.enam.LedgerEntryType;
 import app.entity.Account;
 import app.handler.*;
 import app.repository.AccountRepository;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,90 +29,129 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final SecurityUtils securityUtils;
     private final PasswordEncoder passwordEncoder;
+    private final AccountDetailsCache accountDetailsCache;
+    private final ServiceMetrics serviceMetrics;
+    private final OutboxService outboxService;
+    private final BalanceLedgerService balanceLedgerService;
 
     @Autowired
     public AccountService(
             AccountDetailsService accountDetailsService,
             AccountRepository accountRepository,
             SecurityUtils securityUtils,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            AccountDetailsCache accountDetailsCache,
+            ServiceMetrics serviceMetrics,
+            OutboxService outboxService,
+            BalanceLedgerService balanceLedgerService) {
         this.accountDetailsService = accountDetailsService;
         this.accountRepository = accountRepository;
         this.securityUtils = securityUtils;
         this.passwordEncoder = passwordEncoder;
+        this.accountDetailsCache = accountDetailsCache;
+        this.serviceMetrics = serviceMetrics;
+        this.outboxService = outboxService;
+        this.balanceLedgerService = balanceLedgerService;
     }
 
+    @Transactional
     public AccountOperationResult registration(String username, String password) {
-        if (accountRepository.findByUsername(username).isPresent()) {
-            throw new InvalidUsernameException("Пользователь с таким именем уже существует: " + username);
-        }
-
-        checkUsernameLength(username);
-        checkPasswordLength(password);
-
-        Account account = new Account();
-        account.setUsername(username);
-        account.setPassword(password);
-        accountDetailsService.registrationUser(account);
-        return new AccountOperationResult(username, AccountOperationType.REGISTRATION_ACCOUNT, true);
+        return serviceMetrics.record("account", "registration", AccountOperationType.REGISTRATION_ACCOUNT, () -> {
+            checkUsernameLength(username);
+            checkPasswordLength(password);
+
+            Account account = new Account();
+            account.setUsername(username);
+            account.setPassword(password);
+            try {
+                accountDetailsService.registrationUser(account);
+            } catch (DataIntegrityViolationException e) {
+                throw new InvalidUsernameException("Пользователь с таким именем уже существует: " + username);
+            }
+            balanceLedgerService.recordMovement(account.getId(), account.getBalance(), LedgerEntryType.OPENING_BALANCE,
+                    null, null, null);
+            AccountOperationResult result =
+                    new AccountOperationResult(username, AccountOperationType.REGISTRATION_ACCOUNT, true);
+            outboxService.publish("account", account.getId(), AccountOperationType.REGISTRATION_ACCOUNT, result);
+            return result;
+        });
     }
 
     public AccountOperationResult login(String username, String password) {
-        if (accountRepository.findByUsername(username).isEmpty()) {
-            throw new InvalidAuthorizationException("Пользователя с данным именем не существует: " + username);
-        }
-        if (!passwordEncoder.matches(password, accountRepository.findByUsername(username).get().getPassword())) {
-            throw new InvalidAuthorizationException("Пароль указан не верно");
-        }
-        accountDetailsService.loadUserByUsername(username);
-        return new AccountOperationResult(username, AccountOperationType.LOG_IN, true);
+        return serviceMetrics.record("account", "login", AccountOperationType.LOG_IN, () -> {
+            AccountCredentialsView credentials = accountRepository.findCredentialsByUsername(username)
+                    .orElseThrow(() -> new InvalidAuthorizationException(
+                            "Пользователя с данным именем не существует: " + username));
+            if (!passwordEncoder.matches(password, credentials.getPassword())) {
+                throw new InvalidAuthorizationException("Пароль указан не верно");
+            }
+            if (!credentials.isActive()) {
+                throw new UsernameNotFoundException("Аккаунт не активен: " + username);
+            }
+            if (passwordEncoder.upgradeEncoding(credentials.getPassword())) {
+                accountRepository.updatePassword(credentials.getId(), passwordEncoder.encode(password));
+                accountDetailsCache.removeUserFromCache(username);
+            }
+            return new AccountOperationResult(username, AccountOperationType.LOG_IN, true);
+        });
     }
 
     @Transactional
     public AccountOperationResult changeName(String oldName, String newName) {
-        if (StringUtils.isEmpty(newName) || StringUtils.isEmpty(oldName)) {
-            throw new InvalidInputException("Имя пользователя не может быть пустым");
-        }
-        checkUsernameLength(newName);
-        Long currentId = securityUtils.getCurrentUserId(accountRepository);
-        Account account = accountRepository.findByUsername(oldName)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        if (!currentId.equals(account.getId())) {
-            throw new AccessDeniedException("Пользователю не принадлежит это имя");
-        }
-        if (accountRepository.existsByUsername(newName)) {
-            throw new InvalidInputException("Имя пользователя уже занято");
-        }
-        account.setUsername(newName);
-        accountRepository.save(account);
-
-        return new AccountOperationResult(
-                oldName + " -> " + newName, AccountOperationType.CHANGE_USERNAME, true
-        );
+        return serviceMetrics.record("account", "changeName", AccountOperationType.CHANGE_USERNAME, () -> {
+            if (StringUtils.isEmpty(newName) || StringUtils.isEmpty(oldName)) {
+                throw new InvalidInputException("Имя пользователя не может быть пустым");
+            }
+            checkUsernameLength(newName);
+            Long currentId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findByUsername(oldName)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            if (!currentId.equals(account.getId())) {
+                throw new AccessDeniedException("Пользователю не принадлежит это имя");
+            }
+            if (accountRepository.existsByUsername(newName)) {
+                throw new InvalidInputException("Имя пользователя уже занято");
+            }
+            account.setUsername(newName);
+            accountRepository.save(account);
+            accountDetailsCache.removeUserFromCache(oldName);
+            accountDetailsCache.removeUserFromCache(newName);
+
+            AccountOperationResult result = new AccountOperationResult(
+                    oldName + " -> " + newName, AccountOperationType.CHANGE_USERNAME, true
+            );
+            outboxService.publish("account", account.getId(), AccountOperationType.CHANGE_USERNAME, result);
+            return result;
+        });
     }
 
     @Transactional
     public AccountOperationResult changePassword(String oldPassword, String newPassword) {
-        if (StringUtils.isEmpty(newPassword) || StringUtils.isEmpty(oldPassword)) {
-            throw new InvalidInputException("Пароль не может быть пустым");
-        }
-        checkPasswordLength(newPassword);
-        Long currentId = securityUtils.getCurrentUserId(accountRepository);
-        Account account = accountRepository.findById(currentId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        if (!passwordEncoder.matches(oldPassword, account.getPassword())) {
-            throw new InvalidPasswordException("Неправильно указан действующий пароль");
-        }
-        if (passwordEncoder.matches(newPassword, account.getPassword())) {
-            throw new InvalidPasswordException("Новый пароль должен отличаться от старого");
-        }
-
-        account.setPassword(passwordEncoder.encode(newPassword));
-        accountRepository.save(account);
-
-        return new AccountOperationResult(
-                account.getUsername(), AccountOperationType.CHANGE_PASSWORD, true
-        );
+        return serviceMetrics.record("account", "changePassword", AccountOperationType.CHANGE_PASSWORD, () -> {
+            if (StringUtils.isEmpty(newPassword) || StringUtils.isEmpty(oldPassword)) {
+                throw new InvalidInputException("Пароль не может быть пустым");
+            }
+            checkPasswordLength(newPassword);
+            Long currentId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findById(currentId)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            if (!passwordEncoder.matches(oldPassword, account.getPassword())) {
+                throw new InvalidPasswordException("Неправильно указан действующий пароль");
+            }
+            if (passwordEncoder.matches(newPassword, account.getPassword())) {
+                throw new InvalidPasswordException("Новый пароль должен отличаться от старого");
+            }
+
+            account.setPassword(passwordEncoder.encode(newPassword));
+            accountRepository.save(account);
+            accountDetailsCache.removeUserFromCache(account.getUsername());
+
+            AccountOperationResult result = new AccountOperationResult(
+                    account.getUsername(), AccountOperationType.CHANGE_PASSWORD, true
+            );
+            outboxService.publish("account", account.getId(), AccountOperationType.CHANGE_PASSWORD, result);
+            return result;
+        });
     }
 
     private void checkPasswordLength(String password) {
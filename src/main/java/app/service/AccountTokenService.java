@@ -0,0 +1,108 @@
+package app.service;
+
+import app.dto.AccountDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "app.security.stateless", havingValue = "true")
+public class AccountTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final String PLACEHOLDER_SECRET = "change-me-to-a-long-random-secret-value";
+
+    private final byte[] secret;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public AccountTokenService(@Value("${app.security.token-secret}") String secret,
+                               @Value("${app.security.token-ttl-seconds:3600}") long ttlSeconds) {
+        this(secret, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    public AccountTokenService(String secret, Duration ttl, Clock clock) {
+        if (secret == null || secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("Секрет для подписи токенов должен быть не короче " +
+                    MIN_SECRET_LENGTH + " символов");
+        }
+        if (secret.equals(PLACEHOLDER_SECRET)) {
+            throw new IllegalStateException("Секрет для подписи токенов не задан: укажите TOKEN_SECRET");
+        }
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public String issueToken(AccountDetails account) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String roles = account.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = account.getId() + ":" + expiresAt + ":" + roles + ":" + account.getUsername();
+        String encodedPayload = encode(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + encode(sign(encodedPayload));
+    }
+
+    public Optional<Authentication> parseToken(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, separator);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(encodedPayload), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8)
+                    .split(":", 4);
+            if (parts.length != 4 || Long.parseLong(parts[1]) < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            List<SimpleGrantedAuthority> authorities = parts[2].isEmpty() ? List.of() :
+                    Arrays.stream(parts[2].split(",")).map(SimpleGrantedAuthority::new).toList();
+            return Optional.of(new UsernamePasswordAuthenticationToken(Long.valueOf(parts[0]), null, authorities));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttl.getSeconds();
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось подписать токен", e);
+        }
+    }
+
+    private String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,122 @@
+package app.service;
+
+import app.dto.BalanceMismatchView;
+import app.repository.BalanceLedgerRepository;
+import app.repository.BalanceSnapshotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновые задачи журнала баланса: периодически сворачивает записи в снимки, переносит
+ * последний снимок в {@code account.balance} и сверяет эту колонку с журналом. Расхождения
+ * пишутся в лог и в метрику {@value #MISMATCH_GAUGE}; автоматически они не исправляются.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ledger.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceLedgerMaintenance {
+
+    public static final String MISMATCH_GAUGE = "store.ledger.mismatches";
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceLedgerMaintenance.class);
+
+    private final BalanceLedgerRepository balanceLedgerRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final BalanceLedgerService balanceLedgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicInteger mismatches;
+    private final long snapshotIntervalMs;
+    private final long reconcileIntervalMs;
+    private final Duration snapshotLag;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public BalanceLedgerMaintenance(BalanceLedgerRepository balanceLedgerRepository,
+                                    BalanceSnapshotRepository balanceSnapshotRepository,
+                                    BalanceLedgerService balanceLedgerService,
+                                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                    @Value("${app.ledger.snapshot.interval-ms:60000}") long snapshotIntervalMs,
+                                    @Value("${app.ledger.snapshot.lag-ms:30000}") long snapshotLagMs,
+                                    @Value("${app.ledger.reconcile.interval-ms:3600000}") long reconcileIntervalMs) {
+        this.balanceLedgerRepository = balanceLedgerRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.balanceLedgerService = balanceLedgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mismatches = meterRegistry.gauge(MISMATCH_GAUGE, new AtomicInteger());
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.snapshotLag = Duration.ofMillis(snapshotLagMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> runQuietly("снимки", this::takeSnapshots),
+                snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runQuietly("сверка", this::reconcile),
+                reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public int takeSnapshots() {
+        Integer created = transactionTemplate.execute(status -> {
+            int count = balanceSnapshotRepository.takeSnapshots(Instant.now().minus(snapshotLag));
+            balanceSnapshotRepository.pruneSuperseded();
+            if (count > 0) {
+                balanceSnapshotRepository.refreshAccountBalances();
+            }
+            return count;
+        });
+        balanceLedgerService.evictSnapshots();
+        int count = created == null ? 0 : created;
+        if (count > 0) {
+            log.debug("Создано {} снимков баланса", count);
+        }
+        return count;
+    }
+
+    public List<BalanceMismatchView> reconcile() {
+        List<BalanceMismatchView> found = transactionTemplate.execute(status -> balanceLedgerRepository.findMismatches());
+        List<BalanceMismatchView> result = found == null ? List.of() : found;
+        mismatches.set(result.size());
+        for (BalanceMismatchView mismatch : result) {
+            log.warn("Баланс аккаунта {} расходится с журналом: в аккаунте {}, по журналу {}",
+                    mismatch.getAccountId(), mismatch.getAccountBalance(), mismatch.getLedgerBalance());
+        }
+        return result;
+    }
+
+    private void runQuietly(String task, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            log.error("Задача журнала баланса '{}' завершилась ошибкой", task, e);
+        }
+    }
+}
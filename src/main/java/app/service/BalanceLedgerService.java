@@ -0,0 +1,169 @@
+package app.service;
+
+import app.dto.BalanceHistoryDTO;
+import app.dto.BalanceMovementDTO;
+import app.dto.LedgerCharge;
+import app.dto.LedgerEntryView;
+import app.enam.InventoryOperationType;
+import app.enam.LedgerEntryType;
+import app.entity.BalanceLedgerEntry;
+import app.entity.BalanceSnapshot;
+import app.handler.InsufficientBalanceException;
+import app.handler.InvalidInputException;
+import app.handler.NotFoundException;
+import app.repository.AccountRepository;
+import app.repository.BalanceLedgerRepository;
+import app.repository.BalanceSnapshotRepository;
+import app.utils.Money;
+import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Аудиторский журнал движений баланса. Каждое списание и зачисление записывается
+ * в balance_ledger в транзакции операции; баланс по журналу — это последний снимок
+ * плюс записи после него. Снимки кэшируются в памяти и сбрасываются после того, как
+ * {@link BalanceLedgerMaintenance} свернёт журнал в новые снимки.
+ * <p>
+ * Журнал авторитетен: торговые операции не обновляют строку аккаунта, а проверяют баланс по
+ * снимку и записям после него и добавляют одну запись. Поэтому операции одного аккаунта не
+ * ждут блокировку его строки; проверку и вставку сериализует полоса
+ * {@link TradeLockManager#accountKey(Long)}, которую вызывающий держит до фиксации транзакции.
+ * {@code account.balance} — лишь копия последнего снимка, её обновляет {@link BalanceLedgerMaintenance}.
+ */
+@Service
+public class BalanceLedgerService {
+
+    private static final int MAX_HISTORY_LIMIT = 500;
+    private static final Duration DEFAULT_HISTORY_WINDOW = Duration.ofDays(30);
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    private final BalanceLedgerRepository balanceLedgerRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final SecurityUtils securityUtils;
+    private final ServiceMetrics serviceMetrics;
+    private final boolean backfillOnStartup;
+    private final Map<Long, BalanceSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BalanceLedgerService(BalanceLedgerRepository balanceLedgerRepository,
+                                BalanceSnapshotRepository balanceSnapshotRepository,
+                                AccountRepository accountRepository, SecurityUtils securityUtils,
+                                ServiceMetrics serviceMetrics,
+                                @Value("${app.ledger.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.balanceLedgerRepository = balanceLedgerRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountRepository = accountRepository;
+        this.securityUtils = securityUtils;
+        this.serviceMetrics = serviceMetrics;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMovement(Long accountId, Money amount, LedgerEntryType entryType,
+                               Long storeId, Long productId, Integer quantity) {
+        balanceLedgerRepository.save(new BalanceLedgerEntry(accountId, amount.toBigDecimal(), entryType,
+                storeId, productId, quantity, Instant.now()));
+    }
+
+    /**
+     * Записывает движение по цене из памяти, отклоняя списание, после которого баланс стал бы отрицательным.
+     * Возвращает баланс после операции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Money chargeMovement(Long accountId, Money amount, LedgerEntryType entryType,
+                                Long storeId, Long productId, Integer quantity) {
+        Money balance = Money.of(getBalance(accountId)).add(amount);
+        checkOverdraft(amount, balance);
+        recordMovement(accountId, amount, entryType, storeId, productId, quantity);
+        return balance;
+    }
+
+    /**
+     * Записывает сделку по цене продукта из базы. Если после списания баланс стал бы отрицательным,
+     * бросает исключение, и запись откатывается вместе с транзакцией операции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LedgerCharge chargeTrade(Long accountId, Long storeId, Long productId, int quantityDelta,
+                                    InventoryOperationType operationType) {
+        Money balance = Money.of(getBalance(accountId));
+        LedgerEntryView entry = balanceLedgerRepository.recordTrade(accountId, storeId, productId, quantityDelta,
+                        LedgerEntryType.valueOf(operationType.name()).name())
+                .orElseThrow(() -> new NotFoundException("Продукт не найден"));
+        Money amount = Money.of(entry.getAmount());
+        Money remaining = balance.add(amount);
+        checkOverdraft(amount, remaining);
+        return new LedgerCharge(amount.toBigDecimal(), remaining.toBigDecimal(), entry.getProductName());
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Long accountId) {
+        BalanceSnapshot snapshot = snapshots.computeIfAbsent(accountId, id -> balanceSnapshotRepository
+                .findFirstByAccountIdOrderByLastEntryIdDesc(id)
+                .orElseGet(() -> new BalanceSnapshot(id, 0L, BigDecimal.ZERO, Instant.EPOCH)));
+        return snapshot.getBalance().add(balanceLedgerRepository.sumAfter(accountId, snapshot.getLastEntryId()));
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceHistoryDTO getHistory(Instant from, Instant to, Integer limit) {
+        return serviceMetrics.record("ledger", "getHistory", () -> {
+            Instant end = to == null ? Instant.now() : to;
+            Instant start = from == null ? end.minus(DEFAULT_HISTORY_WINDOW) : from;
+            int size = limit == null ? 100 : limit;
+            if (!start.isBefore(end)) {
+                throw new InvalidInputException("Начало периода должно быть раньше его окончания");
+            }
+            if (size <= 0 || size > MAX_HISTORY_LIMIT) {
+                throw new InvalidInputException("Количество записей должно быть от 1 до " + MAX_HISTORY_LIMIT);
+            }
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+            List<BalanceMovementDTO> movements = balanceLedgerRepository
+                    .findByAccountIdAndCreatedAtBetweenOrderByIdDesc(accountId, start, end, Limit.of(size))
+                    .stream()
+                    .map(entry -> new BalanceMovementDTO(entry.getId(), entry.getAmount(), entry.getEntryType(),
+                            entry.getStoreId(), entry.getProductId(), entry.getQuantity(), entry.getCreatedAt()))
+                    .toList();
+            return new BalanceHistoryDTO(getBalance(accountId), movements);
+        });
+    }
+
+    private static void checkOverdraft(Money amount, Money remaining) {
+        if (amount.isLessThan(Money.ZERO) && remaining.isLessThan(Money.ZERO)) {
+            throw new InsufficientBalanceException("Недостаточно средств на балансе для покупки");
+        }
+    }
+
+    public void evictSnapshots() {
+        snapshots.clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        int created = balanceLedgerRepository.backfillOpeningBalances();
+        if (created > 0) {
+            log.info("Начальные балансы перенесены в журнал для {} аккаунтов", created);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package app.service;
+
+import app.entity.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Дописывает события в файл в формате JSON Lines, по одному событию на строку.
+ * Предназначен для локальной отладки и проверки потока событий.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sinks.file.enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public FileOutboxSink(@Value("${app.outbox.sinks.file.path:./data/outbox-events.jsonl}") String path,
+                          ObjectMapper objectMapper) {
+        this(Path.of(path), objectMapper);
+    }
+
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        lock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (OutboxEvent event : events) {
+                    ObjectNode line = objectMapper.createObjectNode()
+                            .put("id", event.getId())
+                            .put("aggregateType", event.getAggregateType())
+                            .put("aggregateId", event.getAggregateId())
+                            .put("eventType", event.getEventType())
+                            .put("createdAt", event.getCreatedAt().toString());
+                    line.set("payload", objectMapper.readTree(event.getPayload()));
+                    writer.write(objectMapper.writeValueAsString(line));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать события в " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package app.service;
 
+import app.dto.InventoryOperationRequest;
 import app.dto.InventoryOperationResult;
+import app.dto.InventoryStockView;
+import app.dto.LedgerCharge;
 import app.dto.StoreProductDTO;
+import app.dto.StoreProductPage;
+import app.dto.StoreProductScroll;
 import app.enam.InventoryOperationType;
+import app.enam.LedgerEntryType;
 import app.entity.Account;
 import app.entity.Inventory;
 import app.entity.Product;
@@ -10,80 +16,268 @@ import app.entity.Store;
 import app.handler.*;
 import app.repository.AccountRepository;
 import app.repository.InventoryRepository;
-import app.repository.ProductRepository;
 import app.repository.StoreRepository;
+import app.utils.Money;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class InventoryService {
 
+    private static final Integer MAX_BATCH_SIZE = 1000;
+    private static final Integer MAX_PAGE_SIZE = 200;
+
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
     private final AccountRepository accountRepository;
-    private final ProductRepository productRepository;
+    private final ProductCatalogService productCatalogService;
     private final StoreRepository storeRepository;
     private final InventoryRepository inventoryRepository;
     private final SecurityUtils securityUtils;
+    private final ServiceMetrics serviceMetrics;
+    private final OutboxService outboxService;
+    private final StoreStatsService storeStatsService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final Optional<TradeJournal> tradeJournal;
 
     @Autowired
-    public InventoryService(AccountRepository accountRepository, ProductRepository productRepository,
+    public InventoryService(AccountRepository accountRepository, ProductCatalogService productCatalogService,
                             StoreRepository storeRepository, InventoryRepository inventoryRepository,
-                            SecurityUtils securityUtils) {
+                            SecurityUtils securityUtils, ServiceMetrics serviceMetrics,
+                            OutboxService outboxService, StoreStatsService storeStatsService,
+                            BalanceLedgerService balanceLedgerService, Optional<TradeJournal> tradeJournal) {
         this.accountRepository = accountRepository;
-        this.productRepository = productRepository;
+        this.productCatalogService = productCatalogService;
         this.storeRepository = storeRepository;
         this.inventoryRepository = inventoryRepository;
         this.securityUtils = securityUtils;
+        this.serviceMetrics = serviceMetrics;
+        this.outboxService = outboxService;
+        this.storeStatsService = storeStatsService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.tradeJournal = tradeJournal;
     }
 
     public List<StoreProductDTO> getAllProducts(Long storeId) {
-        List<Inventory> inventories = inventoryRepository.findByStoreId(storeId);
-        if (inventories.isEmpty()) {
-            throw new NotFoundException("Магазин пуст или его не существует");
-        }
-        return inventories.stream()
-                .map(inventory -> new StoreProductDTO(
-                        inventory.getProduct().getId(), inventory.getProduct().getName(),
-                        inventory.getProduct().getPrice(), inventory.getQuantity()
-                ))
-                .collect(Collectors.toList());
+        return serviceMetrics.record("inventory", "getAllProducts", () -> {
+            List<StoreProductDTO> products = inventoryRepository.findProductsByStoreId(storeId);
+            if (products.isEmpty()) {
+                throw new NotFoundException("Магазин пуст или его не существует");
+            }
+            return products;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(Long storeId, Consumer<StoreProductDTO> consumer) {
+        return serviceMetrics.record("inventory", "exportProducts", () -> {
+            long exported = 0;
+            try (Stream<StoreProductDTO> products = inventoryRepository.streamProductsByStoreId(storeId)) {
+                Iterator<StoreProductDTO> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    exported++;
+                }
+            }
+            log.info("Из магазина id : {} выгружено {} продуктов", storeId, exported);
+            return exported;
+        });
+    }
+
+    public StoreProductPage getProductsPage(Long storeId, Integer page, Integer size) {
+        return serviceMetrics.record("inventory", "getProductsPage", () -> {
+            if (page == null || page < 0) {
+                throw new InvalidInputException("Номер страницы не может быть отрицательным");
+            }
+            checkPageSize(size);
+            Page<StoreProductDTO> products = inventoryRepository.findProductsByStoreId(storeId, PageRequest.of(page, size));
+            if (products.getTotalElements() == 0) {
+                throw new NotFoundException("Магазин пуст или его не существует");
+            }
+            return new StoreProductPage(products.getContent(), page, size,
+                    products.getTotalElements(), products.getTotalPages());
+        });
+    }
+
+    public StoreProductScroll scrollProducts(Long storeId, String cursor, Integer size) {
+        return serviceMetrics.record("inventory", "scrollProducts", () -> {
+            checkPageSize(size);
+            Long afterProductId = cursor == null || cursor.isEmpty() ? 0L : decodeCursor(cursor);
+            List<StoreProductDTO> products = inventoryRepository.findProductsByStoreIdAfter(
+                    storeId, afterProductId, PageRequest.ofSize(size + 1));
+            if (products.isEmpty() && afterProductId == 0L) {
+                throw new NotFoundException("Магазин пуст или его не существует");
+            }
+            if (products.size() <= size) {
+                return new StoreProductScroll(products, null);
+            }
+            List<StoreProductDTO> content = products.subList(0, size);
+            return new StoreProductScroll(content, encodeCursor(content.get(size - 1).getId()));
+        });
     }
 
     @Transactional
     public InventoryOperationResult manageProduct(Long storeId, Long productId,
                                                   Integer count, InventoryOperationType operationType) {
-        Long accountId = securityUtils.getCurrentUserId(accountRepository);
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Store store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new NotFoundException("Магазин не найден"));
+        return serviceMetrics.record("inventory", "manageProduct", operationType, () -> {
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            Store store = storeRepository.findById(storeId)
+                    .orElseThrow(() -> new NotFoundException("Магазин не найден"));
 
-        validateStoreOwnership(storeId, account);
+            validateStoreOwnership(storeId, account);
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new NotFoundException("Продукт не найден"));
+            Product product = productCatalogService.findById(productId)
+                    .orElseThrow(() -> new NotFoundException("Продукт не найден"));
 
-        if (count <= 0) {
-            throw new InvalidInputException("Количество не может быть равно или меньше нуля");
-        }
+            if (count <= 0) {
+                throw new InvalidInputException("Количество не может быть равно или меньше нуля");
+            }
 
-        BigDecimal totalCost = product.getPrice().multiply(BigDecimal.valueOf(count));
+            Inventory inventory = inventoryRepository.findByStoreAndProduct(store, product)
+                    .orElseGet(() -> createNewInventory(store, product));
 
-        Inventory inventory = inventoryRepository.findByStoreAndProduct(store, product)
-                .orElseGet(() -> createNewInventory(store, product));
+            List<JournalRecord> journal = new ArrayList<>(1);
+            InventoryOperationResult result = applyOperation(account, store, product, inventory, count, operationType,
+                    journal);
+            journal(journal);
+            return result;
+        });
+    }
 
-        if (operationType.equals(InventoryOperationType.BUY_PRODUCT)) {
-            if (account.getBalance().compareTo(totalCost) < 0) {
-                throw new InsufficientBalanceException("Недостаточно средств на балансе для покупки");
+    @Transactional
+    public List<InventoryOperationResult> manageProducts(List<InventoryOperationRequest> operations) {
+        return serviceMetrics.record("inventory", "manageProducts", () -> {
+            if (operations == null || operations.isEmpty()) {
+                throw new InvalidInputException("Список операций не может быть пустым");
+            }
+            if (operations.size() > MAX_BATCH_SIZE) {
+                throw new InvalidInputException("Количество операций в одном запросе не может превышать " + MAX_BATCH_SIZE);
+            }
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+            Set<Long> storeIds = operations.stream().map(InventoryOperationRequest::getStoreId).collect(Collectors.toSet());
+            Set<Long> productIds = operations.stream().map(InventoryOperationRequest::getProductId).collect(Collectors.toSet());
+
+            Map<Long, Store> stores = storeRepository.findAllById(storeIds).stream()
+                    .collect(Collectors.toMap(Store::getId, Function.identity()));
+            Map<Long, Product> products = productCatalogService.findAllById(productIds);
+            Map<InventoryKey, Inventory> inventories = new HashMap<>();
+            for (Inventory inventory : inventoryRepository.findByStoreIdInAndProductIdIn(storeIds, productIds)) {
+                inventories.put(new InventoryKey(inventory.getStore().getId(), inventory.getProduct().getId()), inventory);
+            }
+
+            List<Inventory> created = new ArrayList<>();
+            List<JournalRecord> journal = new ArrayList<>(operations.size());
+            List<InventoryOperationResult> results = new ArrayList<>(operations.size());
+            for (InventoryOperationRequest operation : operations) {
+                Store store = stores.get(operation.getStoreId());
+                if (store == null) {
+                    throw new NotFoundException("Магазин не найден");
+                }
+                if (!store.getOwner().getId().equals(account.getId())) {
+                    throw new AccessDeniedException("Пользователю не принадлежит магазин");
+                }
+                Product product = products.get(operation.getProductId());
+                if (product == null) {
+                    throw new NotFoundException("Продукт не найден");
+                }
+                if (operation.getCount() == null || operation.getCount() <= 0) {
+                    throw new InvalidInputException("Количество не может быть равно или меньше нуля");
+                }
+                if (operation.getOperationType() == null) {
+                    throw new InvalidInputException("Неизвестный тип операции");
+                }
+                Inventory inventory = inventories.computeIfAbsent(new InventoryKey(store.getId(), product.getId()), key -> {
+                    Inventory newInventory = new Inventory();
+                    newInventory.setStore(store);
+                    newInventory.setProduct(product);
+                    newInventory.setQuantity(0);
+                    created.add(newInventory);
+                    return newInventory;
+                });
+                results.add(applyOperation(account, store, product, inventory, operation.getCount(), operation.getOperationType(),
+                        journal));
+            }
+            inventoryRepository.saveAll(created);
+            journal(journal);
+            log.info("Пакет из {} операций выполнен пользователем '{}'", operations.size(), account.getUsername());
+            return results;
+        });
+    }
+
+    @Transactional
+    public InventoryOperationResult manageProductAtomic(Long storeId, Long productId,
+                                                        Integer count, InventoryOperationType operationType) {
+        return serviceMetrics.record("inventory", "manageProductAtomic", operationType, () -> {
+            if (count == null || count <= 0) {
+                throw new InvalidInputException("Количество не может быть равно или меньше нуля");
             }
+            int delta = switch (operationType) {
+                case BUY_PRODUCT -> count;
+                case SELL_PRODUCT -> -count;
+            };
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+
+            Optional<InventoryStockView> stock = inventoryRepository.adjustQuantity(accountId, storeId, productId, delta);
+            if (stock.isEmpty() && delta > 0) {
+                stock = inventoryRepository.insertQuantity(accountId, storeId, productId, delta);
+            }
+            InventoryStockView inventory = stock
+                    .orElseThrow(() -> rejectAtomicOperation(accountId, storeId, productId, operationType));
+            LedgerCharge charge = balanceLedgerService.chargeTrade(accountId, storeId, productId, delta, operationType);
+
+            storeStatsService.applyTrade(storeId, productId, inventory.getQuantity() - delta, inventory.getQuantity());
+            if (tradeJournal.isPresent()) {
+                journal(List.of(new JournalRecord(accountId, storeId, productId, delta, charge.getAmount())));
+            }
+            log.info("В магазине '{}' произошла операция '{}' над продуктом '{}' в количестве {} штук",
+                    inventory.getStoreName(), operationType, charge.getProductName(), count);
+            InventoryOperationResult result = new InventoryOperationResult(
+                    operationType,
+                    charge.getBalance(),
+                    charge.getProductName(),
+                    count,
+                    inventory.getUsername(),
+                    inventory.getStoreName(),
+                    true);
+            outboxService.publish("store", storeId, operationType, result);
+            return result;
+        });
+    }
+
+    private InventoryOperationResult applyOperation(Account account, Store store, Product product, Inventory inventory,
+                                                    Integer count, InventoryOperationType operationType,
+                                                    List<JournalRecord> journal) {
+        Money totalCost = product.getPrice().multiply(count);
+        int oldQuantity = inventory.getQuantity();
+        Money balanceDelta;
+
+        if (operationType.equals(InventoryOperationType.BUY_PRODUCT)) {
             if (inventory.getQuantity() + count > 69) {
                 throw new ExceedsStorageCapacityException(
                         "Превышена вместимость склада. Текущее количество: " + inventory.getQuantity() +
@@ -91,7 +285,7 @@ public class InventoryService {
                 );
             }
             inventory.setQuantity(inventory.getQuantity() + count);
-            account.setBalance(account.getBalance().subtract(totalCost));
+            balanceDelta = totalCost.negate();
         } else if (operationType.equals(InventoryOperationType.SELL_PRODUCT)) {
             if (inventory.getQuantity() - count < 0) {
                 throw new ExceedsStorageCapacityException(
@@ -99,20 +293,67 @@ public class InventoryService {
                 );
             }
             inventory.setQuantity(inventory.getQuantity() - count);
-            account.setBalance(account.getBalance().add(totalCost));
+            balanceDelta = totalCost;
         } else {
             throw new InvalidInputException("Неизвестный тип операции");
         }
+        Money balance = balanceLedgerService.chargeMovement(account.getId(), balanceDelta,
+                LedgerEntryType.valueOf(operationType.name()), store.getId(), product.getId(), count);
+        storeStatsService.applyTrade(store.getId(), product.getId(), oldQuantity, inventory.getQuantity());
+        journal.add(new JournalRecord(account.getId(), store.getId(), product.getId(),
+                operationType == InventoryOperationType.BUY_PRODUCT ? count : -count, balanceDelta.toBigDecimal()));
         log.info("В магазине '{}' произошла операция '{}' над продуктом '{}' в количестве {} штук",
                 store.getName(), operationType, product.getName(), count);
-        return new InventoryOperationResult(
+        InventoryOperationResult result = new InventoryOperationResult(
                 operationType,
-                account.getBalance(),
+                balance.toBigDecimal(),
                 product.getName(),
                 count,
                 account.getUsername(),
                 store.getName(),
                 true);
+        outboxService.publish("store", store.getId(), operationType, result);
+        return result;
+    }
+
+    // Записи пишутся в транзакции операции с фактически списанной суммой и ждут одного сброса
+    // на диск перед фиксацией; ошибка журнала откатывает операцию. Контекст сбрасывается заранее,
+    // чтобы конфликт версий, после которого операция будет повторена, не оставил записи в журнале
+    private void journal(List<JournalRecord> records) {
+        if (tradeJournal.isEmpty() || records.isEmpty()) {
+            return;
+        }
+        inventoryRepository.flush();
+        long sequence = 0;
+        for (JournalRecord record : records) {
+            sequence = tradeJournal.get().write(record.accountId(), record.storeId(), record.productId(),
+                    record.quantityDelta(), record.balanceDelta());
+        }
+        tradeJournal.get().awaitDurable(sequence);
+    }
+
+    private RuntimeException rejectAtomicOperation(Long accountId, Long storeId, Long productId,
+                                                   InventoryOperationType operationType) {
+        Store store = storeRepository.findById(storeId)
+                .orElseThrow(() -> new NotFoundException("Магазин не найден"));
+        if (!store.getOwner().getId().equals(accountId)) {
+            return new AccessDeniedException("Пользователю не принадлежит магазин");
+        }
+        Product product = productCatalogService.findById(productId)
+                .orElseThrow(() -> new NotFoundException("Продукт не найден"));
+        int quantity = inventoryRepository.findByStoreAndProduct(store, product)
+                .map(Inventory::getQuantity)
+                .orElse(0);
+
+        if (operationType == InventoryOperationType.BUY_PRODUCT) {
+            return new ExceedsStorageCapacityException(
+                    "Превышена вместимость склада. Текущее количество: " + quantity +
+                            ", максимальная вместимость: 69"
+            );
+        }
+        return new ExceedsStorageCapacityException(
+                "Превышен лимит количества продукта. Текущее количество: " + quantity
+        );
     }
 
     private Inventory createNewInventory(Store store, Product product) {
@@ -123,6 +364,32 @@ public class InventoryService {
         return inventoryRepository.save(inventory);
     }
 
+    private void checkPageSize(Integer size) {
+        if (size == null || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private String encodeCursor(Long productId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(productId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Некорректный курсор");
+        }
+    }
+
+    private record InventoryKey(Long storeId, Long productId) {
+    }
+
+    private record JournalRecord(Long accountId, Long storeId, Long productId, int quantityDelta,
+                                 BigDecimal balanceDelta) {
+    }
+
     private void validateStoreOwnership(Long storeId, Account account) {
         Store store = storeRepository.findById(storeId)
                 .orElseThrow(() -> new NotFoundException("Магазин не найден"));
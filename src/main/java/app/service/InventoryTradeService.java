@@ -0,0 +1,163 @@
+package app.service;
+
+import app.dto.InventoryOperationRequest;
+import app.dto.InventoryOperationResult;
+import app.enam.InventoryOperationType;
+import app.handler.InvalidInputException;
+import app.handler.TradeConflictException;
+import app.repository.AccountRepository;
+import app.utils.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет торговые операции {@link InventoryService} под блокировками {@link TradeLockManager}
+ * и повторяет попытки, завершившиеся конфликтом версий, взаимной блокировкой или ошибкой сериализации. Сам не транзакционный: блокировки
+ * держатся до фиксации транзакции, а каждая попытка выполняется в новой транзакции.
+ * <p>
+ * При включённом write-behind одиночные операции уходят в {@link InventoryWriteBehindEngine},
+ * который обходится без блокировок продуктов и конфликтов версий. Полоса аккаунта берётся всегда,
+ * в том числе при выключенных блокировках: под ней {@link BalanceLedgerService} проверяет баланс по журналу.
+ */
+@Service
+public class InventoryTradeService {
+
+    public static final String CONFLICT_COUNTER = "store.trade.conflicts";
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryTradeService.class);
+    private static final List<String> METHODS = List.of("manageProduct", "manageProductAtomic", "manageProducts");
+
+    private final InventoryService inventoryService;
+    private final TradeLockManager tradeLockManager;
+    private final SecurityUtils securityUtils;
+    private final AccountRepository accountRepository;
+    private final Optional<InventoryWriteBehindEngine> writeBehindEngine;
+    private final boolean locksEnabled;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Map<String, Counter> retriedCounters = new HashMap<>();
+    private final Map<String, Counter> exhaustedCounters = new HashMap<>();
+
+    @Autowired
+    public InventoryTradeService(InventoryService inventoryService, TradeLockManager tradeLockManager,
+                                 SecurityUtils securityUtils, AccountRepository accountRepository,
+                                 MeterRegistry meterRegistry, Optional<InventoryWriteBehindEngine> writeBehindEngine,
+                                 @Value("${app.trade.locks.enabled:true}") boolean locksEnabled,
+                                 @Value("${app.trade.retry.max-attempts:3}") int maxAttempts,
+                                 @Value("${app.trade.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                 @Value("${app.trade.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Количество попыток должно быть больше нуля");
+        }
+        this.inventoryService = inventoryService;
+        this.tradeLockManager = tradeLockManager;
+        this.securityUtils = securityUtils;
+        this.accountRepository = accountRepository;
+        this.writeBehindEngine = writeBehindEngine;
+        this.locksEnabled = locksEnabled;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        for (String method : METHODS) {
+            retriedCounters.put(method, conflicts(meterRegistry, method, "retried"));
+            exhaustedCounters.put(method, conflicts(meterRegistry, method, "exhausted"));
+        }
+    }
+
+    public InventoryOperationResult manageProduct(Long storeId, Long productId,
+                                                  Integer count, InventoryOperationType operationType) {
+        if (writeBehindEngine.isPresent()) {
+            return withLocks(List.of(), () -> writeBehindEngine.get().trade(storeId, productId, count, operationType));
+        }
+        return withLocks(List.of(TradeLockManager.itemKey(storeId, productId)), () -> withRetry("manageProduct",
+                () -> inventoryService.manageProduct(storeId, productId, count, operationType)));
+    }
+
+    public InventoryOperationResult manageProductAtomic(Long storeId, Long productId,
+                                                        Integer count, InventoryOperationType operationType) {
+        if (writeBehindEngine.isPresent()) {
+            return withLocks(List.of(), () -> writeBehindEngine.get().trade(storeId, productId, count, operationType));
+        }
+        return withLocks(List.of(TradeLockManager.itemKey(storeId, productId)), () -> withRetry("manageProductAtomic",
+                () -> inventoryService.manageProductAtomic(storeId, productId, count, operationType)));
+    }
+
+    public List<InventoryOperationResult> manageProducts(List<InventoryOperationRequest> operations) {
+        if (writeBehindEngine.isPresent()) {
+            throw new InvalidInputException("Пакетные операции недоступны в режиме write-behind");
+        }
+        List<Object> keys = operations == null ? List.of() : operations.stream()
+                .map(operation -> TradeLockManager.itemKey(operation.getStoreId(), operation.getProductId()))
+                .toList();
+        return withLocks(keys, () -> withRetry("manageProducts", () -> inventoryService.manageProducts(operations)));
+    }
+
+    // Баланс общий для всех продуктов аккаунта, поэтому вместе с продуктами блокируется и сам аккаунт
+    private <T> T withLocks(List<Object> itemKeys, Supplier<T> operation) {
+        List<Object> keys = new ArrayList<>(itemKeys.size() + 1);
+        keys.add(TradeLockManager.accountKey(securityUtils.getCurrentUserId(accountRepository)));
+        if (locksEnabled) {
+            keys.addAll(itemKeys);
+        }
+        try (TradeLockManager.Lease lease = tradeLockManager.acquire(keys)) {
+            return operation.get();
+        }
+    }
+
+    private <T> T withRetry(String method, Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhaustedCounters.get(method).increment();
+                    log.warn("Операция '{}' не выполнена после {} попыток из-за конкурентного изменения",
+                            method, attempt);
+                    throw new TradeConflictException(
+                            "Данные изменились во время операции, повторите запрос позже", e);
+                }
+                retriedCounters.get(method).increment();
+                log.debug("Конфликт конкурентного доступа в операции '{}', попытка {} из {}: {}",
+                        method, attempt, maxAttempts, e.getClass().getSimpleName());
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Экспоненциальная задержка с полным джиттером, чтобы конфликтующие запросы не повторялись синхронно
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeConflictException("Повтор операции прерван", e);
+        }
+    }
+
+    private static Counter conflicts(MeterRegistry meterRegistry, String method, String outcome) {
+        return Counter.builder(CONFLICT_COUNTER)
+                .description("Конфликты конкурентного доступа в торговых операциях")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,378 @@
+package app.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Журнал изменений остатков для режима write-behind. Операция сначала пишет резерв
+ * ({@code R <id> <key> <delta>}) и дожидается его сброса на диск, затем фиксирует списание
+ * в базе и дописывает подтверждение ({@code C <id> <key> <version> <quantity>}) с абсолютным
+ * количеством и версией ячейки либо отмену резерва ({@code X <id>}). Несколько операций,
+ * ожидающих диск одновременно, обслуживаются одним fsync.
+ * <p>
+ * При восстановлении для каждого ключа берётся подтверждение с наибольшей версией, а резервы
+ * без подтверждения и отмены считаются выполненными: сбой мог произойти уже после фиксации
+ * списания. Журнал разбит на сегменты; при переключении сегмента незавершённые резервы
+ * переписываются в новый, поэтому старые сегменты можно удалить после сброса в базу.
+ */
+public class InventoryWriteAheadLog implements AutoCloseable {
+
+    public static final long DEFAULT_SYNC_TIMEOUT_MS = 5000;
+
+    private static final String SEGMENT_PREFIX = "inventory-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final long syncTimeoutMs;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Map<Long, long[]> pending = new LinkedHashMap<>();
+    private long nextSegment;
+    private Path currentSegment;
+    private FileChannel channel;
+    private long sequence;
+    private long durableSequence;
+    private boolean syncing;
+
+    public InventoryWriteAheadLog(Path directory) {
+        this(directory, DEFAULT_SYNC_TIMEOUT_MS);
+    }
+
+    public InventoryWriteAheadLog(Path directory, long syncTimeoutMs) {
+        this.directory = directory;
+        this.syncTimeoutMs = syncTimeoutMs;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(InventoryWriteAheadLog::isSegment)
+                        .sorted()
+                        .forEach(segment -> {
+                            sealedSegments.add(segment);
+                            nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+                        });
+            }
+            // Номера резервов не должны пересекаться с номерами из ещё не восстановленных сегментов
+            sequence = replay(sealedSegments).lastSequence();
+            durableSequence = sequence;
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал остатков в " + directory, e);
+        }
+    }
+
+    /**
+     * Записывает резерв и возвращает его номер. Запись ещё не сброшена на диск,
+     * для этого нужно дождаться {@link #awaitDurable(long)}.
+     */
+    public long reserve(long key, int delta) {
+        lock.lock();
+        try {
+            long id = ++sequence;
+            write("R " + id + " " + key + " " + delta + "\n");
+            pending.put(id, new long[]{key, delta});
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает отмену резерва и возвращает номер записи для {@link #awaitDurable(long)}.
+     */
+    public long revert(long reservation) {
+        lock.lock();
+        try {
+            // Резерв больше не переносится в новые сегменты, даже если отмену записать не удалось
+            pending.remove(reservation);
+            long id = ++sequence;
+            write("X " + reservation + "\n");
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подтверждает резерв. {@code commit} применяет операцию к ячейке и возвращает её версию
+     * в старших 32 битах и количество в младших; он выполняется под блокировкой журнала,
+     * поэтому подтверждения ложатся в журнал в том же порядке, в каком менялись ячейки.
+     */
+    public void commit(long reservation, long key, LongSupplier commit) {
+        lock.lock();
+        try {
+            long state = commit.getAsLong();
+            pending.remove(reservation);
+            ++sequence;
+            write("C " + reservation + " " + key + " " + (state >>> 32) + " " + (int) state + "\n");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждёт, пока запись с номером {@code id} окажется на диске. Если сброс уже выполняет другой
+     * поток, ожидание присоединяется к нему. Ошибка fsync и превышение {@code syncTimeoutMs}
+     * пробрасываются вызывающему.
+     */
+    public void awaitDurable(long id) {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncTimeoutMs);
+            while (durableSequence < id) {
+                if (!syncing) {
+                    forceLocked();
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(
+                            "Журнал остатков не сброшен на диск за " + syncTimeoutMs + " мс");
+                }
+                synced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание сброса журнала остатков прервано", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент, открывает новый и переносит в него незавершённые резервы.
+     * Возвращает все закрытые сегменты, которые ещё не были удалены.
+     */
+    public List<Path> rotate() {
+        lock.lock();
+        try {
+            awaitSyncFinished();
+            channel.force(false);
+            channel.close();
+            durableSequence = sequence;
+            synced.signalAll();
+            sealedSegments.add(currentSegment);
+            openSegment();
+            for (Map.Entry<Long, long[]> reservation : pending.entrySet()) {
+                write("R " + reservation.getKey() + " " + reservation.getValue()[0] + " " +
+                        reservation.getValue()[1] + "\n");
+            }
+            return List.copyOf(sealedSegments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось переключить сегмент журнала остатков", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Path> getSealedSegments() {
+        lock.lock();
+        try {
+            return List.copyOf(sealedSegments);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void delete(List<Path> segments) {
+        lock.lock();
+        try {
+            for (Path segment : segments) {
+                try {
+                    Files.deleteIfExists(segment);
+                    sealedSegments.remove(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось удалить сегмент журнала " + segment, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync() {
+        awaitDurable(currentSequence());
+    }
+
+    /**
+     * Читает сегменты: последнее подтверждённое количество для каждого ключа и сумма
+     * изменений по резервам, которые не были ни подтверждены, ни отменены.
+     * Оборванная последняя строка (сбой посреди записи) пропускается. Строки старого формата
+     * {@code <key> <version> <quantity>} читаются как подтверждения.
+     */
+    public static Recovery replay(List<Path> segments) {
+        Map<Long, long[]> latest = new HashMap<>();
+        Map<Long, long[]> reservations = new LinkedHashMap<>();
+        long lastSequence = 0;
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    try {
+                        switch (parts[0]) {
+                            case "R" -> {
+                                if (parts.length == 4) {
+                                    long id = Long.parseLong(parts[1]);
+                                    reservations.put(id, new long[]{Long.parseLong(parts[2]), Integer.parseInt(parts[3])});
+                                    lastSequence = Math.max(lastSequence, id);
+                                }
+                            }
+                            case "X" -> {
+                                if (parts.length == 2) {
+                                    reservations.remove(Long.parseLong(parts[1]));
+                                }
+                            }
+                            case "C" -> {
+                                if (parts.length == 5) {
+                                    reservations.remove(Long.parseLong(parts[1]));
+                                    applyCommitted(latest, Long.parseLong(parts[2]), Long.parseLong(parts[3]),
+                                            Integer.parseInt(parts[4]));
+                                }
+                            }
+                            default -> {
+                                if (parts.length == 3) {
+                                    applyCommitted(latest, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                                            Integer.parseInt(parts[2]));
+                                }
+                            }
+                        }
+                    } catch (NumberFormatException e) {
+                        // Оборванная строка
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать сегмент журнала " + segment, e);
+            }
+        }
+        Map<Long, Integer> committed = new HashMap<>();
+        latest.forEach((key, value) -> committed.put(key, (int) value[1]));
+        Map<Long, Integer> inDoubt = new HashMap<>();
+        for (long[] reservation : reservations.values()) {
+            inDoubt.merge(reservation[0], (int) reservation[1], Integer::sum);
+        }
+        return new Recovery(committed, inDoubt, lastSequence);
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!channel.isOpen()) {
+                return;
+            }
+            awaitSyncFinished();
+            channel.force(false);
+            channel.close();
+            durableSequence = sequence;
+            synced.signalAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось закрыть журнал остатков", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long currentSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // fsync выполняется без блокировки, чтобы операции могли дописывать журнал во время сброса
+    private void forceLocked() {
+        syncing = true;
+        long target = sequence;
+        FileChannel current = channel;
+        lock.unlock();
+        IOException failure = null;
+        try {
+            current.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            lock.lock();
+            syncing = false;
+            synced.signalAll();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Не удалось сбросить журнал остатков на диск", failure);
+        }
+        durableSequence = Math.max(durableSequence, target);
+    }
+
+    private void awaitSyncFinished() {
+        boolean interrupted = false;
+        while (syncing) {
+            try {
+                synced.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать в журнал остатков", e);
+        }
+    }
+
+    private static void applyCommitted(Map<Long, long[]> latest, long key, long version, int quantity) {
+        long[] current = latest.get(key);
+        if (current == null || current[0] < version) {
+            latest.put(key, new long[]{version, quantity});
+        }
+    }
+
+    private void openSegment() throws IOException {
+        currentSegment = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Результат чтения журнала: подтверждённые количества, сумма изменений по незавершённым
+     * резервам для каждого ключа и наибольший встреченный номер резерва.
+     */
+    public record Recovery(Map<Long, Integer> committed, Map<Long, Integer> inDoubt, long lastSequence) {
+    }
+}
@@ -0,0 +1,434 @@
+package app.service;
+
+import app.dto.InventoryOperationResult;
+import app.dto.LedgerCharge;
+import app.enam.InventoryOperationType;
+import app.entity.Product;
+import app.handler.AccessDeniedException;
+import app.handler.ExceedsStorageCapacityException;
+import app.handler.InvalidInputException;
+import app.handler.NotFoundException;
+import app.handler.TradeConflictException;
+import app.repository.AccountRepository;
+import app.repository.StoreRepository;
+import app.utils.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Режим write-behind: остатки активных магазинов хранятся в памяти и считаются авторитетными,
+ * а в PostgreSQL сбрасываются пачками по расписанию и при остановке. Каждая ячейка — это
+ * {@link AtomicLong}: версия в старших 32 битах, затем подтверждённое количество и две границы
+ * с учётом незавершённых операций — верхняя (подтверждённое плюс резервы покупок) и нижняя
+ * (подтверждённое минус резервы продаж). Ограничение 0..69 проверяется по границам в CAS-цикле
+ * без блокировок, а в базу и в {@link #getQuantity} попадает только подтверждённое количество.
+ * <p>
+ * Резерв записывается в {@link InventoryWriteAheadLog} и сбрасывается на диск до списания баланса,
+ * подтверждение или отмена дописываются после. Баланс списывается записью в журнал баланса
+ * ({@link BalanceLedgerService#chargeTrade}) без обновления строки аккаунта, поэтому вызывающий
+ * держит полосу аккаунта {@link TradeLockManager} на время {@link #trade}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.inventory.write-behind.enabled", havingValue = "true")
+public class InventoryWriteBehindEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryWriteBehindEngine.class);
+
+    private static final int MAX_QUANTITY = 69;
+    private static final long LOW_BITS = 0xFFFFFFFFL;
+    private static final int QUANTITY_MASK = 0xFF;
+
+    private static final String SELECT_QUANTITY = "SELECT quantity FROM inventory WHERE store = ? AND product = ?";
+    private static final String UPSERT_QUANTITY = """
+            INSERT INTO inventory (store, product, quantity, version) VALUES (?, ?, ?, 0)
+            ON CONFLICT (store, product) DO UPDATE SET quantity = EXCLUDED.quantity, version = inventory.version + 1
+            """;
+
+    private final ConcurrentHashMap<Long, AtomicLong> slots = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Long> storeOwners = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final StoreRepository storeRepository;
+    private final ProductCatalogService productCatalogService;
+    private final SecurityUtils securityUtils;
+    private final OutboxService outboxService;
+    private final StoreStatsService storeStatsService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final Optional<TradeJournal> tradeJournal;
+    private final InventoryWriteAheadLog wal;
+    private final long flushIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public InventoryWriteBehindEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      AccountRepository accountRepository, StoreRepository storeRepository,
+                                      ProductCatalogService productCatalogService, SecurityUtils securityUtils,
+                                      OutboxService outboxService, StoreStatsService storeStatsService,
+                                      BalanceLedgerService balanceLedgerService, Optional<TradeJournal> tradeJournal,
+                                      @Value("${app.inventory.write-behind.wal-dir:./data/inventory-wal}") String walDir,
+                                      @Value("${app.inventory.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+                                      @Value("${app.inventory.write-behind.sync-timeout-ms:5000}") long syncTimeoutMs) {
+        this(jdbcTemplate, transactionManager, accountRepository, storeRepository, productCatalogService,
+                securityUtils, outboxService, storeStatsService, balanceLedgerService, tradeJournal,
+                new InventoryWriteAheadLog(Path.of(walDir), syncTimeoutMs), flushIntervalMs);
+    }
+
+    public InventoryWriteBehindEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      AccountRepository accountRepository, StoreRepository storeRepository,
+                                      ProductCatalogService productCatalogService, SecurityUtils securityUtils,
+                                      OutboxService outboxService, StoreStatsService storeStatsService,
+                                      BalanceLedgerService balanceLedgerService, Optional<TradeJournal> tradeJournal,
+                                      InventoryWriteAheadLog wal, long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountRepository = accountRepository;
+        this.storeRepository = storeRepository;
+        this.productCatalogService = productCatalogService;
+        this.securityUtils = securityUtils;
+        this.outboxService = outboxService;
+        this.storeStatsService = storeStatsService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.tradeJournal = tradeJournal;
+        this.wal = wal;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(flushIntervalMs + 5000, TimeUnit.MILLISECONDS);
+        }
+        int flushed = flush();
+        wal.close();
+        log.info("Write-behind остановлен, при остановке сброшено {} остатков", flushed);
+    }
+
+    public InventoryOperationResult trade(Long storeId, Long productId, Integer count,
+                                          InventoryOperationType operationType) {
+        if (count == null || count <= 0) {
+            throw new InvalidInputException("Количество не может быть равно или меньше нуля");
+        }
+        int delta = switch (operationType) {
+            case BUY_PRODUCT -> count;
+            case SELL_PRODUCT -> -count;
+        };
+        Long accountId = securityUtils.getCurrentUserId(accountRepository);
+        checkOwner(storeId, accountId);
+        Product product = productCatalogService.findById(productId)
+                .orElseThrow(() -> new NotFoundException("Продукт не найден"));
+
+        long key = key(storeId, product.getId());
+        AtomicLong slot = slots.computeIfAbsent(key, k -> {
+            int quantity = load(storeId, productId);
+            return new AtomicLong(pack(0, quantity, quantity, quantity));
+        });
+        reserve(slot, delta);
+        long reservation = reserveDurably(key, slot, delta);
+
+        Optional<InventoryOperationResult> charged;
+        try {
+            charged = transactionTemplate.execute(status -> storeRepository.findOwnedStore(storeId, accountId)
+                    .map(store -> {
+                        LedgerCharge charge = balanceLedgerService.chargeTrade(
+                                accountId, storeId, productId, delta, operationType);
+                        InventoryOperationResult result = new InventoryOperationResult(operationType,
+                                charge.getBalance(), charge.getProductName(), count, store.getUsername(),
+                                store.getStoreName(), true);
+                        tradeJournal.ifPresent(journal -> journal.append(accountId, storeId, productId, delta,
+                                charge.getAmount()));
+                        outboxService.publish("store", storeId, operationType, result);
+                        return result;
+                    }));
+        } catch (RuntimeException e) {
+            cancel(slot, reservation, delta);
+            throw e;
+        }
+        if (charged == null || charged.isEmpty()) {
+            cancel(slot, reservation, delta);
+            // Владелец перепроверяется в транзакции списания; если он сменился, кэш устарел
+            storeOwners.remove(storeId);
+            checkOwner(storeId, accountId);
+            throw new TradeConflictException("Данные изменились во время операции, повторите запрос позже", null);
+        }
+        // Ячейка меняется и помечается грязной под блокировкой журнала: сброс, который удалит сегмент
+        // с подтверждением, гарантированно увидит ключ и запишет его актуальное значение
+        try {
+            wal.commit(reservation, key, () -> {
+                long committed = commit(slot, delta);
+                dirty.add(key);
+                return (version(committed) << 32) | committed(committed);
+            });
+        } catch (RuntimeException e) {
+            // Списание уже зафиксировано, а резерв остался в журнале и при сбое будет применён
+            log.error("Не удалось записать подтверждение резерва {} в журнал остатков", reservation, e);
+        }
+
+        InventoryOperationResult result = charged.get();
+        log.debug("В магазине '{}' произошла операция '{}' над продуктом '{}' в количестве {} штук",
+                result.getStoreName(), operationType, result.getProductName(), count);
+        return result;
+    }
+
+    public Optional<Integer> getQuantity(Long storeId, Long productId) {
+        AtomicLong slot = slots.get(key(storeId, productId));
+        return slot == null ? Optional.empty() : Optional.of(committed(slot.get()));
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Path> segments = wal.rotate();
+            List<Long> keys = new ArrayList<>();
+            for (Iterator<Long> iterator = dirty.iterator(); iterator.hasNext(); ) {
+                keys.add(iterator.next());
+                iterator.remove();
+            }
+            if (!keys.isEmpty()) {
+                List<Object[]> batch = new ArrayList<>(keys.size());
+                for (Long key : keys) {
+                    batch.add(new Object[]{storeOf(key), productOf(key), committed(slots.get(key).get())});
+                }
+                try {
+                    upsert(batch);
+                } catch (RuntimeException e) {
+                    dirty.addAll(keys);
+                    throw e;
+                }
+            }
+            wal.delete(segments);
+            return keys.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                log.debug("Сброшено в базу {} остатков", flushed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить остатки в базу, повтор при следующем сбросе", e);
+        }
+    }
+
+    private void recover() {
+        List<Path> segments = wal.getSealedSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments);
+        Map<Long, Integer> state = new HashMap<>(recovery.committed());
+        // Резерв без подтверждения и отмены мог пережить сбой уже после фиксации списания,
+        // поэтому он применяется поверх последнего известного количества
+        recovery.inDoubt().forEach((key, delta) -> {
+            int base = state.containsKey(key) ? state.get(key) : load(storeOf(key), productOf(key));
+            state.put(key, Math.max(0, Math.min(MAX_QUANTITY, base + delta)));
+        });
+        if (!recovery.inDoubt().isEmpty()) {
+            log.warn("В журнале остатков найдены незавершённые резервы по {} позициям, они применены",
+                    recovery.inDoubt().size());
+        }
+        List<Object[]> batch = new ArrayList<>(state.size());
+        state.forEach((key, quantity) -> batch.add(new Object[]{storeOf(key), productOf(key), quantity}));
+        if (!batch.isEmpty()) {
+            upsert(batch);
+        }
+        wal.delete(segments);
+        log.info("Из журнала восстановлено {} остатков", state.size());
+    }
+
+    private void upsert(List<Object[]> batch) {
+        Set<Long> storeIds = new HashSet<>();
+        for (Object[] row : batch) {
+            storeIds.add((Long) row[0]);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_QUANTITY, batch);
+            storeStatsService.recompute(storeIds);
+        });
+    }
+
+    private void checkOwner(Long storeId, Long accountId) {
+        Long ownerId = storeOwners.get(storeId);
+        if (ownerId == null || !ownerId.equals(accountId)) {
+            // Отказ по закэшированному владельцу не выдаётся без перечитывания из базы
+            ownerId = storeRepository.findById(storeId)
+                    .map(store -> store.getOwner().getId())
+                    .orElse(null);
+            if (ownerId == null) {
+                storeOwners.remove(storeId);
+                throw new NotFoundException("Магазин не найден");
+            }
+            storeOwners.put(storeId, ownerId);
+        }
+        if (!ownerId.equals(accountId)) {
+            throw new AccessDeniedException("Пользователю не принадлежит магазин");
+        }
+    }
+
+    private void reserve(AtomicLong slot, int delta) {
+        while (true) {
+            long current = slot.get();
+            int upper = upper(current);
+            int lower = lower(current);
+            if (delta > 0 && upper + delta > MAX_QUANTITY) {
+                throw new ExceedsStorageCapacityException(
+                        "Превышена вместимость склада. Текущее количество: " + committed(current) +
+                                ", максимальная вместимость: " + MAX_QUANTITY
+                );
+            }
+            if (delta < 0 && lower + delta < 0) {
+                throw new ExceedsStorageCapacityException(
+                        "Превышен лимит количества продукта. Текущее количество: " + committed(current)
+                );
+            }
+            long updated = delta > 0
+                    ? pack(version(current), committed(current), upper + delta, lower)
+                    : pack(version(current), committed(current), upper, lower + delta);
+            if (slot.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private void release(AtomicLong slot, int delta) {
+        while (true) {
+            long current = slot.get();
+            long updated = delta > 0
+                    ? pack(version(current), committed(current), upper(current) - delta, lower(current))
+                    : pack(version(current), committed(current), upper(current), lower(current) - delta);
+            if (slot.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private long commit(AtomicLong slot, int delta) {
+        while (true) {
+            long current = slot.get();
+            long updated = delta > 0
+                    ? pack(version(current) + 1, committed(current) + delta, upper(current), lower(current) + delta)
+                    : pack(version(current) + 1, committed(current) + delta, upper(current) + delta, lower(current));
+            if (slot.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private long reserveDurably(long key, AtomicLong slot, int delta) {
+        long reservation;
+        try {
+            reservation = wal.reserve(key, delta);
+        } catch (RuntimeException e) {
+            release(slot, delta);
+            throw e;
+        }
+        try {
+            wal.awaitDurable(reservation);
+        } catch (RuntimeException e) {
+            cancel(slot, reservation, delta);
+            throw e;
+        }
+        return reservation;
+    }
+
+    // Резерв освобождается в памяти сразу. Если отмена не попадёт на диск, резерв останется
+    // только в текущем сегменте и пропадёт после ближайшего сброса
+    private void cancel(AtomicLong slot, long reservation, int delta) {
+        release(slot, delta);
+        try {
+            wal.awaitDurable(wal.revert(reservation));
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать отмену резерва {} в журнал остатков", reservation, e);
+        }
+    }
+
+    private int load(Long storeId, Long productId) {
+        Integer quantity = jdbcTemplate.query(SELECT_QUANTITY, rs -> rs.next() ? rs.getInt(1) : 0, storeId, productId);
+        return quantity == null ? 0 : quantity;
+    }
+
+    private static long key(Long storeId, Long productId) {
+        if (storeId == null || productId == null || storeId < 0 || storeId > Integer.MAX_VALUE ||
+                productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new InvalidInputException("Идентификатор магазина или продукта вне допустимого диапазона");
+        }
+        return (storeId << 32) | productId;
+    }
+
+    private static long storeOf(long key) {
+        return key >>> 32;
+    }
+
+    private static long productOf(long key) {
+        return key & LOW_BITS;
+    }
+
+    private static long pack(long version, int committed, int upper, int lower) {
+        return (version << 32) | ((long) committed << 16) | ((long) upper << 8) | lower;
+    }
+
+    private static long version(long state) {
+        return state >>> 32;
+    }
+
+    private static int committed(long state) {
+        return (int) (state >>> 16) & QUANTITY_MASK;
+    }
+
+    private static int upper(long state) {
+        return (int) (state >>> 8) & QUANTITY_MASK;
+    }
+
+    private static int lower(long state) {
+        return (int) state & QUANTITY_MASK;
+    }
+}
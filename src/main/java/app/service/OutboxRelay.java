@@ -0,0 +1,124 @@
+package app.service;
+
+import app.entity.OutboxEvent;
+import app.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая доставка событий из outbox пачками во все {@link OutboxSink}. Пачка выбирается
+ * с {@code FOR UPDATE SKIP LOCKED}, поэтому несколько экземпляров приложения не доставляют
+ * одно событие одновременно. Отметка о доставке фиксируется в той же транзакции, что и выборка:
+ * при сбое любого получателя пачка останется недоставленной и будет повторена.
+ */
+@Service
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String DELIVERED_COUNTER = "store.outbox.delivered";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deliveredCounter;
+    private final int batchSize;
+    private final long intervalMs;
+    private final Duration retention;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${app.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.relay.interval-ms:1000}") long intervalMs,
+                       @Value("${app.outbox.relay.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveredCounter = Counter.builder(DELIVERED_COUNTER)
+                .description("События outbox, доставленные получателям")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledRelay, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(intervalMs + 5000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Доставляет одну пачку и возвращает количество доставленных событий.
+     */
+    public int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.lockUnpublished(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            for (OutboxSink sink : sinks) {
+                sink.deliver(events);
+            }
+            outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), Instant.now());
+            return events.size();
+        });
+        int count = delivered == null ? 0 : delivered;
+        if (count > 0) {
+            deliveredCounter.increment(count);
+        }
+        return count;
+    }
+
+    public int purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void scheduledRelay() {
+        try {
+            int delivered;
+            do {
+                delivered = relayBatch();
+            } while (delivered == batchSize);
+            int deleted = purgePublished();
+            if (deleted > 0) {
+                log.debug("Удалено {} доставленных событий outbox", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось доставить события outbox, повтор при следующем запуске", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package app.service;
+
+import app.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Доставка «хотя бы один раз»: если {@link #deliver} бросает
+ * исключение, вся пачка будет доставлена повторно, поэтому получатели должны быть идемпотентны
+ * по {@link OutboxEvent#getId()}.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    void deliver(List<OutboxEvent> events);
+}
@@ -0,0 +1,203 @@
+package app.service;
+
+import app.dto.ProductCacheStats;
+import app.entity.Product;
+import app.repository.ProductRepository;
+import app.utils.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш каталога продуктов. Хранит неизменяемые снимки (id, название, цена), а не JPA-сущности:
+ * каждый вызов получает свою копию {@link Product}, не связанную с чужой сессией. Загрузка
+ * из базы кладётся в кэш, только если с момента промаха не было ни одной инвалидации, поэтому
+ * цена, прочитанная до фиксации изменения, не вернётся в кэш после его сброса. Записи живут
+ * не дольше {@code app.product-cache.ttl-ms}.
+ */
+@Service
+public class ProductCatalogService {
+
+    private static final long DEFAULT_TTL_MS = 60_000;
+
+    private final ProductRepository productRepository;
+    private final StoreStatsService storeStatsService;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, CachedProduct> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+
+    public ProductCatalogService(ProductRepository productRepository, StoreStatsService storeStatsService,
+                                 int maxSize) {
+        this(productRepository, storeStatsService, maxSize, DEFAULT_TTL_MS);
+    }
+
+    @Autowired
+    public ProductCatalogService(ProductRepository productRepository, StoreStatsService storeStatsService,
+                                 @Value("${app.product-cache.max-size:10000}") int maxSize,
+                                 @Value("${app.product-cache.ttl-ms:60000}") long ttlMs) {
+        this.productRepository = productRepository;
+        this.storeStatsService = storeStatsService;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedProduct> eldest) {
+                if (size() > ProductCatalogService.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Product> findById(Long productId) {
+        CachedProduct cached;
+        long observedGeneration;
+        lock.lock();
+        try {
+            cached = lookup(productId);
+            observedGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached.toProduct());
+        }
+        misses.incrementAndGet();
+        Optional<Product> loaded = productRepository.findById(productId);
+        loaded.ifPresent(product -> put(product, observedGeneration));
+        return loaded;
+    }
+
+    public Map<Long, Product> findAllById(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        long observedGeneration;
+        lock.lock();
+        try {
+            for (Long productId : productIds) {
+                CachedProduct cached = lookup(productId);
+                if (cached != null) {
+                    products.put(productId, cached.toProduct());
+                } else {
+                    missing.add(productId);
+                }
+            }
+            observedGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        hits.addAndGet(products.size());
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            for (Product product : productRepository.findAllById(missing)) {
+                put(product, observedGeneration);
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    @Transactional
+    public Product save(Product product) {
+        Product saved = productRepository.save(product);
+        storeStatsService.recomputeForProduct(saved.getId());
+        invalidate(saved.getId());
+        return saved;
+    }
+
+    public void invalidate(Long productId) {
+        evict(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(productId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProductCacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = cache.size();
+        } finally {
+            lock.unlock();
+        }
+        return new ProductCacheStats(hits.get(), misses.get(), evictions.get(), size, maxSize);
+    }
+
+    // Вызывается под блокировкой кэша
+    private CachedProduct lookup(Long productId) {
+        CachedProduct cached = cache.get(productId);
+        if (cached != null && ttlNanos > 0 && System.nanoTime() - cached.loadedAt() > ttlNanos) {
+            cache.remove(productId);
+            return null;
+        }
+        return cached;
+    }
+
+    // Инвалидация между промахом и загрузкой меняет поколение, и загруженное значение отбрасывается
+    private void put(Product product, long observedGeneration) {
+        lock.lock();
+        try {
+            if (generation == observedGeneration) {
+                cache.put(product.getId(), new CachedProduct(product.getId(), product.getName(), product.getPrice(),
+                        System.nanoTime()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(Long productId) {
+        lock.lock();
+        try {
+            generation++;
+            cache.remove(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record CachedProduct(Long id, String name, Money price, long loadedAt) {
+
+        Product toProduct() {
+            return new Product(id, name, price);
+        }
+    }
+}
@@ -11,9 +11,12 @@ import app.handler.NotFoundException;
 import app.repository.AccountRepository;
 import app.repository.StoreRepository;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
@@ -23,67 +26,107 @@ public class StoreService {
 
     private static final Integer MAX_STORE_NAME_LENGTH = 30;
     private static final Integer MIN_STORE_NAME_LENGTH = 3;
+    private static final String STORE_NAME_CONSTRAINT = "uk_store_name";
 
     private static final Logger log = LoggerFactory.getLogger(StoreService.class);
 
     private final StoreRepository storeRepository;
     private final AccountRepository accountRepository;
     private final SecurityUtils securityUtils;
+    private final ServiceMetrics serviceMetrics;
+    private final OutboxService outboxService;
+    private final StoreStatsService storeStatsService;
 
     @Autowired
     public StoreService(StoreRepository storeRepository, AccountRepository accountRepository,
-                        SecurityUtils securityUtils) {
+                        SecurityUtils securityUtils, ServiceMetrics serviceMetrics, OutboxService outboxService,
+                        StoreStatsService storeStatsService) {
         this.storeRepository = storeRepository;
         this.accountRepository = accountRepository;
         this.securityUtils = securityUtils;
+        this.serviceMetrics = serviceMetrics;
+        this.outboxService = outboxService;
+        this.storeStatsService = storeStatsService;
     }
 
     @Transactional
     public StoreOperationResult createStore(String storeName) {
-        if (StringUtils.isEmpty(storeName)) {
-            throw new InvalidInputException("Название магазина не может быть пустым");
-        }
-        Long accountId = securityUtils.getCurrentUserId(accountRepository);
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        checkLengthName(storeName);
-        if (storeRepository.existsByName(storeName)) {
-            throw new AlreadyExistsException("Магазин с названием '" + storeName + "' существует");
-        }
-        Store store = new Store(storeName, account);
-        log.info("Попытка сохранить магазин: \n {}", store);
-        storeRepository.save(store);
-        log.info("Магазин '{}' успешно создан пользователем '{}'", storeName, account.getUsername());
-        return new StoreOperationResult(StoreOperationType.CREATE, account.getUsername(), store.getName());
+        return serviceMetrics.record("store", "createStore", StoreOperationType.CREATE, () -> {
+            if (StringUtils.isEmpty(storeName)) {
+                throw new InvalidInputException("Название магазина не может быть пустым");
+            }
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            checkLengthName(storeName);
+            if (storeRepository.existsByName(storeName)) {
+                throw new AlreadyExistsException("Магазин с названием '" + storeName + "' существует");
+            }
+            Store store = new Store(storeName, account);
+            log.info("Попытка сохранить магазин: \n {}", store);
+            try {
+                storeRepository.save(store);
+            } catch (DataIntegrityViolationException e) {
+                throw storeNameTaken(e, storeName);
+            }
+            storeStatsService.initialize(store.getId());
+            log.info("Магазин '{}' успешно создан пользователем '{}'", storeName, account.getUsername());
+            StoreOperationResult result = new StoreOperationResult(
+                    StoreOperationType.CREATE, account.getUsername(), store.getName(), store.getId());
+            outboxService.publish("store", store.getId(), StoreOperationType.CREATE, result);
+            return result;
+        });
     }
 
     @Transactional
     public StoreOperationResult changeName(String oldName, String newName) {
-        if (StringUtils.isEmpty(newName) || StringUtils.isEmpty(oldName)) {
-            throw new InvalidInputException("Название магазина не может быть пустым");
-        }
-        Long accountId = securityUtils.getCurrentUserId(accountRepository);
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Store store = storeRepository.findByName(oldName)
-                .orElseThrow(() -> new NotFoundException("Магазин с названием '" + oldName + "' не найден"));
-        checkLengthName(newName);
-        if (oldName.equals(newName)) {
-            throw new InvalidInputException("Название не может совпадать");
-        }
-        if (storeRepository.existsByName(newName)) {
-            throw new AlreadyExistsException("Магазин с названием '" + newName + "' существует");
-        }
-        if (!store.getOwner().equals(account)) {
-            throw new AccessDeniedException("Пользователю не принадлежит магазин");
-        }
+        return serviceMetrics.record("store", "changeName", StoreOperationType.CHANGE_STORENAME, () -> {
+            if (StringUtils.isEmpty(newName) || StringUtils.isEmpty(oldName)) {
+                throw new InvalidInputException("Название магазина не может быть пустым");
+            }
+            Long accountId = securityUtils.getCurrentUserId(accountRepository);
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            Store store = storeRepository.findByName(oldName)
+                    .orElseThrow(() -> new NotFoundException("Магазин с названием '" + oldName + "' не найден"));
+            checkLengthName(newName);
+            if (oldName.equals(newName)) {
+                throw new InvalidInputException("Название не может совпадать");
+            }
+            if (storeRepository.existsByName(newName)) {
+                throw new AlreadyExistsException("Магазин с названием '" + newName + "' существует");
+            }
+            if (!store.getOwner().equals(account)) {
+                throw new AccessDeniedException("Пользователю не принадлежит магазин");
+            }
+
+            store.setName(newName);
+            // Конкурентное переименование в то же название отсекает uk_store_name; flush поднимает
+            // нарушение здесь, а не при фиксации транзакции
+            try {
+                storeRepository.save(store);
+                storeRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw storeNameTaken(e, newName);
+            }
 
-        store.setName(newName);
-        storeRepository.save(store);
+            StoreOperationResult result = new StoreOperationResult(
+                    StoreOperationType.CHANGE_STORENAME, account.getUsername(), newName
+            );
+            outboxService.publish("store", store.getId(), StoreOperationType.CHANGE_STORENAME, result);
+            return result;
+        });
+    }
 
-        return new StoreOperationResult(
-                StoreOperationType.CHANGE_STORENAME, account.getUsername(), newName
-        );
+    // Только нарушение uk_store_name означает занятое название, остальные нарушения пробрасываются как есть
+    private static RuntimeException storeNameTaken(DataIntegrityViolationException e, String name) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && STORE_NAME_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                return new AlreadyExistsException("Магазин с названием '" + name + "' существует");
+            }
+        }
+        return e;
     }
 
     private void checkLengthName(String name) {
@@ -0,0 +1,120 @@
+package app.service;
+
+import app.dto.StoreStatsDTO;
+import app.dto.StoreStatsShardView;
+import app.entity.StoreStats;
+import app.handler.NotFoundException;
+import app.repository.StoreRepository;
+import app.repository.StoreStatsRepository;
+import app.utils.ServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Витрина store_stats: количество позиций, единиц товара и их стоимость по текущим ценам.
+ * Торговые операции сдвигают её на дельту в своей транзакции, поэтому чтение статистики
+ * не зависит от размера магазина. Дельты пишутся не в строку магазина, а в один из
+ * {@code app.store-stats.shards} шардов по продукту: иначе все операции магазина ждали бы
+ * блокировку одной строки. Чтение складывает строку магазина и его шарды. Полный пересчёт
+ * выполняется только при смене цены, при сбросе write-behind и для магазинов, у которых
+ * строки ещё нет.
+ */
+@Service
+public class StoreStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreStatsService.class);
+
+    private final StoreStatsRepository storeStatsRepository;
+    private final StoreRepository storeRepository;
+    private final ServiceMetrics serviceMetrics;
+    private final boolean backfillOnStartup;
+    private final int shards;
+
+    @Autowired
+    public StoreStatsService(StoreStatsRepository storeStatsRepository, StoreRepository storeRepository,
+                             ServiceMetrics serviceMetrics,
+                             @Value("${app.store-stats.backfill-on-startup:true}") boolean backfillOnStartup,
+                             @Value("${app.store-stats.shards:16}") int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Количество шардов статистики должно быть больше нуля");
+        }
+        this.storeStatsRepository = storeStatsRepository;
+        this.storeRepository = storeRepository;
+        this.serviceMetrics = serviceMetrics;
+        this.backfillOnStartup = backfillOnStartup;
+        this.shards = shards;
+    }
+
+    @Transactional
+    public StoreStatsDTO getStats(Long storeId) {
+        return serviceMetrics.record("store", "getStats", () -> {
+            StoreStats stats = storeStatsRepository.findById(storeId).orElseGet(() -> {
+                if (!storeRepository.existsById(storeId)) {
+                    throw new NotFoundException("Магазин не найден");
+                }
+                storeStatsRepository.recompute(List.of(storeId));
+                return storeStatsRepository.findById(storeId)
+                        .orElseThrow(() -> new NotFoundException("Магазин не найден"));
+            });
+            StoreStatsShardView deltas = storeStatsRepository.sumShards(storeId);
+            Instant updatedAt = deltas.getUpdatedAt() != null && deltas.getUpdatedAt().isAfter(stats.getUpdatedAt())
+                    ? deltas.getUpdatedAt()
+                    : stats.getUpdatedAt();
+            return new StoreStatsDTO(stats.getStoreId(),
+                    Math.toIntExact(stats.getSkuCount() + deltas.getSkuCount()),
+                    stats.getTotalQuantity() + deltas.getTotalQuantity(),
+                    stats.getTotalValue().add(deltas.getTotalValue()),
+                    updatedAt);
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void initialize(Long storeId) {
+        storeStatsRepository.initialize(storeId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTrade(Long storeId, Long productId, int oldQuantity, int newQuantity) {
+        if (oldQuantity == newQuantity) {
+            return;
+        }
+        int skuDelta = (newQuantity > 0 ? 1 : 0) - (oldQuantity > 0 ? 1 : 0);
+        storeStatsRepository.applyDelta(storeId, (int) Math.floorMod(productId, (long) shards), productId,
+                skuDelta, newQuantity - oldQuantity);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recompute(Collection<Long> storeIds) {
+        if (!storeIds.isEmpty()) {
+            storeStatsRepository.recompute(storeIds);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recomputeForProduct(Long productId) {
+        storeStatsRepository.recomputeStoresWithProduct(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        int created = storeStatsRepository.backfillMissing();
+        if (created > 0) {
+            log.info("Собрана статистика для {} магазинов", created);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал совершённых торговых операций: аккаунт, магазин, продукт, изменение количества
+ * и баланса. Записи фиксированного размера пишутся в отображённые в память сегменты,
+ * а на диск сбрасываются групповым fsync раз в {@code sync-interval-ms}: все операции,
+ * попавшие в интервал, ожидают один общий сброс. Операции пишут журнал внутри своей
+ * транзакции, поэтому ожидание ограничено {@code sync-timeout-ms}, а ошибка сброса
+ * возвращается ожидающим и откатывает их транзакции.
+ * <p>
+ * Каждая запись защищена контрольной суммой, поэтому чтение сегмента останавливается
+ * на первой оборванной или ещё не записанной записи. Вместо мониторов используется
+ * {@link ReentrantLock}, чтобы ожидание сброса не закрепляло виртуальный поток за носителем.
+ */
+@Service
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class TradeJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 64;
+    public static final long DEFAULT_SYNC_TIMEOUT_MS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(TradeJournal.class);
+
+    private static final String SEGMENT_PREFIX = "trades-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int CHECKSUM_OFFSET = 56;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long syncIntervalMs;
+    private final long syncTimeoutMs;
+    private final boolean awaitSync;
+    private final ScheduledExecutorService syncExecutor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+
+    private long nextSegment;
+    private MappedByteBuffer buffer;
+    private long sequence;
+    private long durableSequence;
+    private long failedSequence;
+    private RuntimeException syncFailure;
+    private boolean closed;
+
+    @Autowired
+    public TradeJournal(@Value("${app.journal.dir:./data/trade-journal}") String directory,
+                        @Value("${app.journal.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${app.journal.sync-interval-ms:5}") long syncIntervalMs,
+                        @Value("${app.journal.await-sync:true}") boolean awaitSync,
+                        @Value("${app.journal.sync-timeout-ms:1000}") long syncTimeoutMs) {
+        this(Path.of(directory), segmentBytes, syncIntervalMs, awaitSync, syncTimeoutMs);
+    }
+
+    public TradeJournal(Path directory, int segmentBytes, long syncIntervalMs, boolean awaitSync) {
+        this(directory, segmentBytes, syncIntervalMs, awaitSync, DEFAULT_SYNC_TIMEOUT_MS);
+    }
+
+    public TradeJournal(Path directory, int segmentBytes, long syncIntervalMs, boolean awaitSync, long syncTimeoutMs) {
+        if (segmentBytes < RECORD_SIZE || segmentBytes % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Размер сегмента журнала должен быть кратен " + RECORD_SIZE);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncTimeoutMs = syncTimeoutMs;
+        this.awaitSync = awaitSync;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            for (Path segment : segments) {
+                nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+            }
+            // Последний сегмент может оказаться пустым, если после рестарта не было операций
+            for (int i = segments.size() - 1; i >= 0 && sequence == 0; i--) {
+                read(segments.get(i), entry -> sequence = Math.max(sequence, entry.sequence()));
+            }
+            durableSequence = sequence;
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал операций в " + directory, e);
+        }
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncExecutor.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Добавляет запись и, если включено ожидание, возвращается только после группового fsync.
+     * Возвращает порядковый номер записи.
+     */
+    public long append(long accountId, long storeId, long productId, int quantityDelta, BigDecimal balanceDelta) {
+        long recordSequence = write(accountId, storeId, productId, quantityDelta, balanceDelta);
+        awaitDurable(recordSequence);
+        return recordSequence;
+    }
+
+    /**
+     * Добавляет запись, не дожидаясь сброса на диск. Пакетные операции пишут так все записи
+     * и затем один раз вызывают {@link #awaitDurable(long)} для последней.
+     */
+    public long write(long accountId, long storeId, long productId, int quantityDelta, BigDecimal balanceDelta) {
+        long unscaled = balanceDelta.unscaledValue().longValueExact();
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        long recordSequence;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Журнал операций закрыт");
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                rotate();
+            }
+            recordSequence = ++sequence;
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE)
+                    .putLong(recordSequence)
+                    .putLong(micros)
+                    .putLong(accountId)
+                    .putLong(storeId)
+                    .putLong(productId)
+                    .putInt(quantityDelta)
+                    .putInt(balanceDelta.scale())
+                    .putLong(unscaled);
+            CRC32C checksum = new CRC32C();
+            checksum.update(record.array(), 0, CHECKSUM_OFFSET);
+            record.putInt((int) checksum.getValue());
+            buffer.put(record.array());
+        } finally {
+            lock.unlock();
+        }
+        return recordSequence;
+    }
+
+    /**
+     * Если включено ожидание, возвращается только после сброса на диск записи с номером
+     * {@code recordSequence}. Не дождавшись сброса за {@code sync-timeout-ms} или получив ошибку
+     * fsync, бросает исключение.
+     */
+    public void awaitDurable(long recordSequence) {
+        if (!awaitSync) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncTimeoutMs);
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (durableSequence < recordSequence) {
+                if (syncFailure != null && recordSequence <= failedSequence) {
+                    throw syncFailure;
+                }
+                if (closed) {
+                    throw new IllegalStateException("Журнал операций закрыт до сброса записи на диск");
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new IllegalStateException(
+                            "Журнал операций не сброшен на диск за " + syncTimeoutMs + " мс");
+                }
+                try {
+                    synced.await(Math.min(remaining, syncIntervalMs), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void sync() {
+        MappedByteBuffer current;
+        long target;
+        lock.lock();
+        try {
+            if (closed || durableSequence >= sequence) {
+                return;
+            }
+            current = buffer;
+            target = sequence;
+        } finally {
+            lock.unlock();
+        }
+        // Сегмент, закрытый ротацией между этими строками, уже сброшен в rotate()
+        try {
+            current.force();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                failedSequence = Math.max(failedSequence, target);
+                syncFailure = new IllegalStateException("Не удалось сбросить журнал операций на диск", e);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            durableSequence = Math.max(durableSequence, target);
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(TradeJournal::isSegment).sorted().toList();
+        }
+    }
+
+    public static void read(Path segment, Consumer<Entry> consumer) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment));
+        byte[] record = new byte[RECORD_SIZE];
+        while (data.remaining() >= RECORD_SIZE) {
+            data.get(record);
+            ByteBuffer view = ByteBuffer.wrap(record);
+            CRC32C checksum = new CRC32C();
+            checksum.update(record, 0, CHECKSUM_OFFSET);
+            long recordSequence = view.getLong();
+            if (recordSequence == 0 || view.getInt(CHECKSUM_OFFSET) != (int) checksum.getValue()) {
+                return;
+            }
+            long micros = view.getLong();
+            long accountId = view.getLong();
+            long storeId = view.getLong();
+            long productId = view.getLong();
+            int quantityDelta = view.getInt();
+            int scale = view.getInt();
+            long unscaled = view.getLong();
+            consumer.accept(new Entry(recordSequence, Instant.EPOCH.plus(micros, ChronoUnit.MICROS),
+                    accountId, storeId, productId, quantityDelta, new BigDecimal(BigInteger.valueOf(unscaled), scale)));
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        syncExecutor.shutdown();
+        sync();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            buffer.force();
+            closed = true;
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить журнал операций на диск", e);
+        }
+    }
+
+    private void rotate() {
+        buffer.force();
+        durableSequence = sequence;
+        synced.signalAll();
+        try {
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть новый сегмент журнала операций", e);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public record Entry(long sequence, Instant timestamp, long accountId, long storeId, long productId,
+                        int quantityDelta, BigDecimal balanceDelta) {
+    }
+}
@@ -0,0 +1,127 @@
+package app.service;
+
+import app.handler.TradeConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки для торговых операций внутри одного узла. Ключ (магазин, продукт)
+ * и ключ аккаунта отображаются на фиксированный набор {@link ReentrantLock}; полосы
+ * захватываются по возрастанию номера, поэтому взаимная блокировка невозможна.
+ */
+@Component
+public class TradeLockManager {
+
+    public static final String WAIT_TIMER = "store.trade.lock.wait";
+    public static final String CONTENDED_COUNTER = "store.trade.lock.contended";
+    public static final String TIMEOUT_COUNTER = "store.trade.lock.timeouts";
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+    private final Timer waitTimer;
+    private final Counter contendedCounter;
+    private final Counter timeoutCounter;
+
+    @Autowired
+    public TradeLockManager(MeterRegistry meterRegistry,
+                            @Value("${app.trade.locks.stripes:1024}") int stripeCount,
+                            @Value("${app.trade.locks.timeout-ms:2000}") long timeoutMs) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Количество полос должно быть больше нуля");
+        }
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Ожидание блокировок торговых операций")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.contendedCounter = Counter.builder(CONTENDED_COUNTER)
+                .description("Захваты блокировок, которым пришлось ждать")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder(TIMEOUT_COUNTER)
+                .description("Захваты блокировок, завершившиеся по таймауту")
+                .register(meterRegistry);
+    }
+
+    public static Object accountKey(Long accountId) {
+        return new AccountKey(accountId);
+    }
+
+    public static Object itemKey(Long storeId, Long productId) {
+        return new ItemKey(storeId, productId);
+    }
+
+    public Lease acquire(Collection<?> keys) {
+        int[] indexes = keys.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int acquired = 0;
+        boolean contended = false;
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock()) {
+                    contended = true;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !lock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                        timeoutCounter.increment();
+                        throw new TradeConflictException(
+                                "Слишком много одновременных операций над этим продуктом, повторите запрос позже", null);
+                    }
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeConflictException("Ожидание блокировки прервано", e);
+        } finally {
+            if (acquired < indexes.length) {
+                release(indexes, acquired);
+            }
+            if (contended) {
+                contendedCounter.increment();
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return () -> release(indexes, indexes.length);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private void release(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripeOf(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (stripes.length - 1);
+    }
+
+    public interface Lease extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record AccountKey(Long accountId) {
+    }
+
+    private record ItemKey(Long storeId, Long productId) {
+    }
+}
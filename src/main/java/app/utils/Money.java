@@ -0,0 +1,72 @@
+package app.utils;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежная сумма в копейках. Арифметика выполняется над {@code long} без промежуточных
+ * {@link BigDecimal}, а переполнение приводит к {@link ArithmeticException}, а не к
+ * молчаливому переходу через ноль. В базе и в JSON сумма остаётся десятичным числом
+ * с двумя знаками после запятой, как у прежних {@code numeric(38,2)} полей.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long CENTS_PER_UNIT = 100;
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    public static Money of(long units) {
+        return new Money(Math.multiplyExact(units, CENTS_PER_UNIT));
+    }
+
+    /**
+     * Сумма с более чем двумя знаками после запятой не округляется, а отклоняется.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public Money add(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money subtract(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money multiply(int count) {
+        return new Money(Math.multiplyExact(cents, count));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(cents));
+    }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -3,17 +3,23 @@ package app.utils;
 import app.dto.AccountDetails;
 import app.handler.NotFoundException;
 import app.repository.AccountRepository;
+import app.service.AccountDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 @Component
 public class SecurityUtils {
 
+    private final AccountDetailsCache accountDetailsCache;
+
     @Autowired
-    public SecurityUtils() {}
+    public SecurityUtils(AccountDetailsCache accountDetailsCache) {
+        this.accountDetailsCache = accountDetailsCache;
+    }
 
     public Long getCurrentUserId(AccountRepository accountRepository) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -28,13 +34,19 @@ public class SecurityUtils {
             return ((AccountDetails) principal).getId();
         } else if (principal instanceof String) {
             String username = (String) principal;
-            return accountRepository.findByUsername(username)
-                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"))
-                    .getId();
+            UserDetails cached = accountDetailsCache.getUserFromCache(username);
+            if (cached instanceof AccountDetails) {
+                return ((AccountDetails) cached).getId();
+            }
+            AccountDetails details = accountRepository.findByUsername(username)
+                    .map(AccountDetails::new)
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            accountDetailsCache.putUserInCache(details);
+            return details.getId();
         } else if (principal instanceof Long) {
             return (Long) principal;
         } else {
             throw new NotFoundException("Пользователь не найден");
         }
     }
-}
\ No newline at end of file
+}
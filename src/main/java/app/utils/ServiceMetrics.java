@@ -0,0 +1,57 @@
+package app.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class ServiceMetrics {
+
+    public static final String OPERATION_TIMER = "store.service.operation";
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String service, String method, Enum<?> operationType, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            String type = operationType == null ? "none" : operationType.name();
+            sample.stop(timers.computeIfAbsent(new TimerKey(service, method, type, outcome), this::register));
+        }
+    }
+
+    public <T> T record(String service, String method, Supplier<T> operation) {
+        return record(service, method, null, operation);
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder(OPERATION_TIMER)
+                .description("Длительность операций сервисного слоя")
+                .tag("service", key.service())
+                .tag("method", key.method())
+                .tag("type", key.type())
+                .tag("outcome", key.outcome())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String service, String method, String type, String outcome) {
+    }
+}
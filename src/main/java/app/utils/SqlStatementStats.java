@@ -0,0 +1,54 @@
+package app.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчик SQL-запросов, выполненных текущим потоком между {@link #begin()} и {@link #end()}.
+ * Асинхронная часть запроса (например, {@code StreamingResponseBody}) выполняется в другом потоке,
+ * поэтому тот же счётчик подключается к нему через {@link #attach(SqlStatementStats)}.
+ * <p>
+ * Учитываются только запросы через JDBC {@code DataSource}: реактивный путь {@code /rx} работает
+ * через R2DBC и в счётчик не попадает.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong timeMillis = new AtomicLong();
+
+    private SqlStatementStats() {
+    }
+
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void attach(SqlStatementStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static SqlStatementStats end() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static void record(long elapsedMillis) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+            stats.timeMillis.addAndGet(elapsedMillis);
+        }
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getTimeMillis() {
+        return timeMillis.get();
+    }
+}
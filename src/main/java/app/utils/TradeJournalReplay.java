@@ -0,0 +1,112 @@
+package app.utils;
+
+import app.service.TradeJournal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Восстанавливает остатки и балансы из снимка и журнала {@link TradeJournal}.
+ * Снимок — текстовый файл со строками {@code sequence <n>}, {@code account <id> <balance>}
+ * и {@code inventory <store> <product> <quantity>}; записи журнала с номером не больше
+ * {@code sequence} считаются уже учтёнными в снимке. Результат пишется в том же формате,
+ * поэтому его можно использовать как снимок для следующего запуска.
+ * <p>
+ * Запуск: {@code ./gradlew journalReplay -Pjournal.dir=... -Pjournal.snapshot=... -Pjournal.output=...}
+ */
+public class TradeJournalReplay {
+
+    private long sequence;
+    private final Map<Long, BigDecimal> balances = new TreeMap<>();
+    private final Map<ItemKey, Integer> quantities = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        String directory = System.getProperty("journal.dir", "./data/trade-journal");
+        String snapshot = System.getProperty("journal.snapshot");
+        String output = System.getProperty("journal.output", "./data/trade-snapshot.txt");
+
+        TradeJournalReplay replay = new TradeJournalReplay();
+        if (snapshot != null) {
+            replay.loadSnapshot(Path.of(snapshot));
+        }
+        long from = replay.getSequence();
+        replay.replay(Path.of(directory));
+        replay.writeSnapshot(Path.of(output));
+        System.out.printf("Применено записей: %d, последняя запись: %d, снимок: %s%n",
+                replay.getSequence() - from, replay.getSequence(), output);
+    }
+
+    public void loadSnapshot(Path snapshot) throws IOException {
+        List<String> lines = Files.readAllLines(snapshot, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.trim().split("\\s+");
+            switch (parts[0]) {
+                case "sequence" -> sequence = Long.parseLong(parts[1]);
+                case "account" -> balances.put(Long.parseLong(parts[1]), new BigDecimal(parts[2]));
+                case "inventory" -> quantities.put(
+                        new ItemKey(Long.parseLong(parts[1]), Long.parseLong(parts[2])), Integer.parseInt(parts[3]));
+                case "" -> {
+                }
+                default -> throw new IllegalArgumentException("Неизвестная строка снимка: " + line);
+            }
+        }
+    }
+
+    public void replay(Path directory) throws IOException {
+        for (Path segment : TradeJournal.segments(directory)) {
+            TradeJournal.read(segment, this::apply);
+        }
+    }
+
+    public void writeSnapshot(Path output) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("sequence " + sequence);
+            writer.newLine();
+            for (Map.Entry<Long, BigDecimal> balance : balances.entrySet()) {
+                writer.write("account " + balance.getKey() + " " + balance.getValue().toPlainString());
+                writer.newLine();
+            }
+            for (Map.Entry<ItemKey, Integer> quantity : quantities.entrySet()) {
+                writer.write("inventory " + quantity.getKey().storeId() + " " + quantity.getKey().productId() +
+                        " " + quantity.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public BigDecimal getBalance(long accountId) {
+        return balances.get(accountId);
+    }
+
+    public Integer getQuantity(long storeId, long productId) {
+        return quantities.get(new ItemKey(storeId, productId));
+    }
+
+    private void apply(TradeJournal.Entry entry) {
+        if (entry.sequence() <= sequence) {
+            return;
+        }
+        sequence = entry.sequence();
+        balances.merge(entry.accountId(), entry.balanceDelta(), BigDecimal::add);
+        quantities.merge(new ItemKey(entry.storeId(), entry.productId()), entry.quantityDelta(), Integer::sum);
+    }
+
+    private record ItemKey(long storeId, long productId) implements Comparable<ItemKey> {
+        @Override
+        public int compareTo(ItemKey other) {
+            int byStore = Long.compare(storeId, other.storeId);
+            return byStore != 0 ? byStore : Long.compare(productId, other.productId);
+        }
+    }
+}
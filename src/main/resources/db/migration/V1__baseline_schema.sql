@@ -0,0 +1,47 @@
+-- Исходная схема из data.sql. На базе, созданной дампом или ddl-auto, эта миграция
+-- не выполняется: Flyway ставит отметку baseline на версию 1 (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE account (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    active boolean NOT NULL,
+    balance numeric(38,2),
+    password varchar(255),
+    username varchar(255)
+);
+
+CREATE TABLE role (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255)
+);
+
+CREATE TABLE account_roles (
+    account_id bigint NOT NULL,
+    role_id bigint NOT NULL,
+    CONSTRAINT fktp61eta5i06bug3w1qr6286uf FOREIGN KEY (account_id) REFERENCES account (id),
+    CONSTRAINT fki84870gssnbi37wfqfifekghb FOREIGN KEY (role_id) REFERENCES role (id)
+);
+
+CREATE TABLE product (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255),
+    price numeric(38,2)
+);
+
+CREATE TABLE store (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255),
+    owner bigint,
+    CONSTRAINT fkknsesvmonsl9riei5rf9o8307 FOREIGN KEY (owner) REFERENCES account (id)
+);
+
+CREATE TABLE inventory (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantity integer,
+    product bigint,
+    store bigint,
+    CONSTRAINT inventory_quantity_check CHECK (quantity <= 69 AND quantity >= 0),
+    CONSTRAINT fk4uqcef3hgwgn6snms8r1xc0uk FOREIGN KEY (product) REFERENCES product (id),
+    CONSTRAINT fkjel0fduy1umknciew4cvyml2c FOREIGN KEY (store) REFERENCES store (id)
+);
+
+INSERT INTO role (name) VALUES ('ROLE_USER');
@@ -0,0 +1,49 @@
+-- Столбцы и таблицы, которые раньше создавал ddl-auto=update. Все операторы идемпотентны:
+-- на базе, где Hibernate их уже создал, миграция ничего не меняет.
+
+ALTER TABLE account ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0;
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_account_username ON account (username);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_inventory_store_product ON inventory (store, product);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type varchar(255) NOT NULL,
+    aggregate_id bigint,
+    event_type varchar(255) NOT NULL,
+    payload text NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL,
+    published_at timestamp(6) with time zone
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_event_published ON outbox_event (published_at, id);
+
+CREATE TABLE IF NOT EXISTS store_stats (
+    store_id bigint PRIMARY KEY,
+    sku_count integer NOT NULL,
+    total_quantity bigint NOT NULL,
+    total_value numeric(38,2) NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS balance_ledger (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id bigint NOT NULL,
+    amount numeric(38,2) NOT NULL,
+    entry_type varchar(255) NOT NULL
+        CHECK (entry_type IN ('OPENING_BALANCE', 'BUY_PRODUCT', 'SELL_PRODUCT')),
+    store_id bigint,
+    product_id bigint,
+    quantity integer,
+    created_at timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_balance_ledger_account ON balance_ledger (account_id, id);
+
+CREATE TABLE IF NOT EXISTS balance_snapshot (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id bigint NOT NULL,
+    last_entry_id bigint NOT NULL,
+    balance numeric(38,2) NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_balance_snapshot_account ON balance_snapshot (account_id, last_entry_id);
@@ -0,0 +1,9 @@
+-- Индексы для поиска по названию и владельцу магазина и по продукту в остатках.
+-- Выборки по inventory(store) обслуживает ведущий столбец idx_inventory_store_product из V2,
+-- а account(username) — uk_account_username.
+-- Если в store уже есть повторяющиеся названия, создание uk_store_name завершится ошибкой:
+-- дубликаты нужно переименовать до миграции.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_store_name ON store (name);
+CREATE INDEX IF NOT EXISTS idx_store_owner ON store (owner);
+CREATE INDEX IF NOT EXISTS idx_inventory_product ON inventory (product);
@@ -0,0 +1,13 @@
+-- Дельты статистики магазина, разложенные по шардам: операции над разными продуктами
+-- обновляют разные строки и не выстраиваются в очередь за одной строкой store_stats.
+-- Итог магазина — строка store_stats плюс сумма его шардов.
+
+CREATE TABLE IF NOT EXISTS store_stats_shard (
+    store_id bigint NOT NULL,
+    shard integer NOT NULL,
+    sku_count integer NOT NULL,
+    total_quantity bigint NOT NULL,
+    total_value numeric(38,2) NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (store_id, shard)
+);
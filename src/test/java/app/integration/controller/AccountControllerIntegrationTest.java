@@ -1,13 +1,17 @@
 package app.integration.controller;
 
 import app.dto.AccountOperationResult;
+import app.dto.BalanceHistoryDTO;
+import app.dto.BalanceMovementDTO;
 import app.enam.AccountOperationType;
+import app.enam.LedgerEntryType;
 import app.handler.InvalidAuthorizationException;
 import app.handler.InvalidInputException;
 import app.handler.InvalidPasswordException;
 import app.handler.InvalidUsernameException;
 import app.service.AccountDetailsService;
 import app.service.AccountService;
+import app.service.BalanceLedgerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -20,6 +24,10 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -37,6 +45,8 @@ public class AccountControllerIntegrationTest {
     private AccountDetailsService accountDetailsService;
     @MockitoBean
     private AccountService accountService;
+    @MockitoBean
+    private BalanceLedgerService balanceLedgerService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -171,6 +181,35 @@ public class AccountControllerIntegrationTest {
                 .andExpect(content().string(errorMessage));
     }
 
+    @Test
+    public void testBalanceHistory_Success() throws Exception {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-02-01T00:00:00Z");
+        BalanceHistoryDTO history = new BalanceHistoryDTO(new BigDecimal(4725), List.of(new BalanceMovementDTO(
+                11L, new BigDecimal(-275), LedgerEntryType.BUY_PRODUCT, 1L, 1L, 5, from.plusSeconds(60))));
+
+        when(balanceLedgerService.getHistory(from, to, 20)).thenReturn(history);
+
+        mockMvc.perform(get("/balanceHistory")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(4725))
+                .andExpect(jsonPath("$.movements[0].type").value("Покупка продукта"));
+    }
+
+    @Test
+    public void testBalanceHistory_InvalidLimit() throws Exception {
+        String errorMessage = "Количество записей должно быть от 1 до 500";
+
+        when(balanceLedgerService.getHistory(null, null, 0)).thenThrow(new InvalidInputException(errorMessage));
+
+        mockMvc.perform(get("/balanceHistory").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(errorMessage));
+    }
+
     @Test
     public void testLogout() throws Exception {
         mockMvc.perform(get("/logout"))
@@ -1,26 +1,40 @@
 package app.integration.controller;
 
+import app.dto.InventoryOperationRequest;
 import app.dto.InventoryOperationResult;
+import app.dto.StoreProductDTO;
 import app.enam.InventoryOperationType;
 import app.handler.InsufficientBalanceException;
 import app.handler.InvalidInputException;
 import app.handler.NotFoundException;
+import app.handler.TradeConflictException;
 import app.repository.StoreRepository;
 import app.service.InventoryService;
+import app.service.InventoryTradeService;
+import app.utils.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +50,8 @@ public class InventoryControllerIntegrationTest {
     @MockitoBean
     private InventoryService inventoryService;
     @MockitoBean
+    private InventoryTradeService inventoryTradeService;
+    @MockitoBean
     private StoreRepository storeRepository;
     @Autowired
     private ObjectMapper objectMapper;
@@ -73,6 +89,30 @@ public class InventoryControllerIntegrationTest {
                 .andExpect(content().string(errorMessage));
     }
 
+    @Test
+    public void testExportProducts_Ndjson() throws Exception {
+        StoreProductDTO bread = new StoreProductDTO(1L, "Bread", Money.of(15), 3);
+        StoreProductDTO milk = new StoreProductDTO(2L, "Milk", Money.of(25), 4);
+
+        doAnswer(invocation -> {
+            Consumer<StoreProductDTO> consumer = invocation.getArgument(1);
+            consumer.accept(bread);
+            consumer.accept(milk);
+            return 2L;
+        }).when(inventoryService).exportProducts(eq(storeId), any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/inv/exportProducts")
+                        .param("storeId", storeId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(objectMapper.writeValueAsString(bread) + "\n" +
+                        objectMapper.writeValueAsString(milk) + "\n"));
+    }
+
     @Test
     public void testManageProduct_BuyProduct() throws Exception {
         InventoryOperationResult result = new InventoryOperationResult(
@@ -85,7 +125,7 @@ public class InventoryControllerIntegrationTest {
                 true
         );
 
-        when(inventoryService.manageProduct(storeId, productId, count, buyOperation)).thenReturn(result);
+        when(inventoryTradeService.manageProduct(storeId, productId, count, buyOperation)).thenReturn(result);
 
         mockMvc.perform(post("/inv/manageProduct")
                 .param("storeId", storeId.toString())
@@ -108,7 +148,7 @@ public class InventoryControllerIntegrationTest {
                 true
         );
 
-        when(inventoryService.manageProduct(storeId, productId, count, sellOperation)).thenReturn(result);
+        when(inventoryTradeService.manageProduct(storeId, productId, count, sellOperation)).thenReturn(result);
 
         mockMvc.perform(post("/inv/manageProduct")
                         .param("storeId", storeId.toString())
@@ -123,7 +163,7 @@ public class InventoryControllerIntegrationTest {
     public void testManageProduct_InvalidInput() throws Exception {
         String errorMessage = "Количество не может быть равно или меньше нуля";
 
-        when(inventoryService.manageProduct(storeId, productId, count, buyOperation))
+        when(inventoryTradeService.manageProduct(storeId, productId, count, buyOperation))
                 .thenThrow(new InvalidInputException(errorMessage));
 
         mockMvc.perform(post(manageProductUrl)
@@ -139,7 +179,7 @@ public class InventoryControllerIntegrationTest {
     public void testManageProduct_InsufficientBalance() throws Exception {
         String errorMessage = "Недостаточно средств на балансе для покупки";
 
-        when(inventoryService.manageProduct(storeId, productId, count, buyOperation))
+        when(inventoryTradeService.manageProduct(storeId, productId, count, buyOperation))
                 .thenThrow(new InsufficientBalanceException(errorMessage));
 
         mockMvc.perform(post(manageProductUrl)
@@ -150,4 +190,58 @@ public class InventoryControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string(errorMessage));
     }
+
+    @Test
+    public void testManageProduct_Conflict() throws Exception {
+        String errorMessage = "Данные изменились во время операции, повторите запрос позже";
+
+        when(inventoryTradeService.manageProduct(storeId, productId, count, buyOperation))
+                .thenThrow(new TradeConflictException(errorMessage, null));
+
+        mockMvc.perform(post(manageProductUrl)
+                        .param("storeId", storeId.toString())
+                        .param("productId", productId.toString())
+                        .param("count", count.toString())
+                        .param("operationType", buyOperation.name()))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(errorMessage));
+    }
+
+    @Test
+    public void testManageProductAtomic_Conflict() throws Exception {
+        String errorMessage = "Данные изменились во время операции, повторите запрос позже";
+
+        when(inventoryTradeService.manageProductAtomic(storeId, productId, count, buyOperation))
+                .thenThrow(new TradeConflictException(errorMessage, null));
+
+        mockMvc.perform(post("/inv/manageProductAtomic")
+                        .param("storeId", storeId.toString())
+                        .param("productId", productId.toString())
+                        .param("count", count.toString())
+                        .param("operationType", buyOperation.name()))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(errorMessage));
+    }
+
+    @Test
+    public void testManageProducts_Batch() throws Exception {
+        List<InventoryOperationRequest> operations = List.of(
+                new InventoryOperationRequest(storeId, productId, count, buyOperation),
+                new InventoryOperationRequest(storeId, productId, count, sellOperation)
+        );
+        List<InventoryOperationResult> results = List.of(
+                new InventoryOperationResult(buyOperation, BigDecimal.valueOf(1000), "product", count,
+                        "user", "store", true),
+                new InventoryOperationResult(sellOperation, BigDecimal.valueOf(1100), "product", count,
+                        "user", "store", true)
+        );
+
+        when(inventoryTradeService.manageProducts(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/inv/manageProducts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package app.integration.controller;
+
+import app.dto.StoreProductDTO;
+import app.repository.ReactiveInventoryRepository;
+import app.utils.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("Integration")
+@SpringBootTest(properties = "app.reactive.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReactiveInventoryControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private ReactiveInventoryRepository reactiveInventoryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Long storeId = 1L;
+    private final Long productId = 2L;
+
+    @Test
+    public void testGetAllProducts_Success() throws Exception {
+        StoreProductDTO bread = new StoreProductDTO(1L, "Bread", Money.of(15), 3);
+        StoreProductDTO milk = new StoreProductDTO(2L, "Milk", Money.of(25), 4);
+
+        when(reactiveInventoryRepository.findProductsByStoreId(storeId)).thenReturn(Flux.just(bread, milk));
+
+        MvcResult mvcResult = mockMvc.perform(get("/rx/inv/getAllProducts")
+                        .param("storeId", storeId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(bread, milk))));
+    }
+
+    @Test
+    public void testGetAllProducts_NotFound() throws Exception {
+        when(reactiveInventoryRepository.findProductsByStoreId(storeId)).thenReturn(Flux.empty());
+
+        MvcResult mvcResult = mockMvc.perform(get("/rx/inv/getAllProducts")
+                        .param("storeId", storeId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetProduct_Success() throws Exception {
+        StoreProductDTO milk = new StoreProductDTO(productId, "Milk", Money.of(25), 4);
+
+        when(reactiveInventoryRepository.findProductByStoreIdAndProductId(storeId, productId))
+                .thenReturn(Mono.just(milk));
+
+        MvcResult mvcResult = mockMvc.perform(get("/rx/inv/getProduct")
+                        .param("storeId", storeId.toString())
+                        .param("productId", productId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(milk)));
+    }
+}
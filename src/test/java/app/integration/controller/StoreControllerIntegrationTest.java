@@ -1,6 +1,7 @@
 package app.integration.controller;
 
 import app.dto.StoreOperationResult;
+import app.dto.StoreStatsDTO;
 import app.enam.StoreOperationType;
 import app.entity.Account;
 import app.entity.Store;
@@ -8,6 +9,7 @@ import app.handler.AlreadyExistsException;
 import app.handler.InvalidInputException;
 import app.handler.NotFoundException;
 import app.service.StoreService;
+import app.service.StoreStatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -19,6 +21,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -34,6 +39,8 @@ public class StoreControllerIntegrationTest {
     private MockMvc mockMvc;
     @MockitoBean
     private StoreService storeService;
+    @MockitoBean
+    private StoreStatsService storeStatsService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -201,4 +208,26 @@ public class StoreControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string(errorMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetStats_Success() throws Exception {
+        StoreStatsDTO stats = new StoreStatsDTO(1L, 2, 15L, new BigDecimal(825), Instant.now());
+
+        when(storeStatsService.getStats(1L)).thenReturn(stats);
+
+        mockMvc.perform(get("/store/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(stats)));
+    }
+
+    @Test
+    public void testGetStats_NotFound() throws Exception {
+        String errorMessage = "Магазин не найден";
+
+        when(storeStatsService.getStats(1L)).thenThrow(new NotFoundException(errorMessage));
+
+        mockMvc.perform(get("/store/1/stats"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(errorMessage));
+    }
+}
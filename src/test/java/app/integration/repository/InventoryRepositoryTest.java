@@ -1,16 +1,24 @@
 package app.integration.repository;
 
+import app.configuration.DataSourceProxyConfig;
+import app.dto.InventoryStockView;
+import app.dto.StoreProductDTO;
+import app.entity.Account;
 import app.entity.Inventory;
 import app.entity.Product;
 import app.entity.Store;
+import app.repository.AccountRepository;
 import app.repository.InventoryRepository;
 import app.repository.ProductRepository;
 import app.repository.StoreRepository;
+import app.utils.Money;
+import app.utils.SqlStatementStats;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -22,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
+@Import(DataSourceProxyConfig.class)
 public class InventoryRepositoryTest {
 
     @Autowired
@@ -33,6 +42,9 @@ public class InventoryRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private AccountRepository accountRepository;
+
     @Test
     public void findByStoreIdTest() {
         Store store = new Store();
@@ -56,6 +68,63 @@ public class InventoryRepositoryTest {
         assertEquals(store.getId(), inventories.get(0).getStore().getId());
     }
 
+    @Test
+    public void findProductsByStoreIdTest() {
+        Store store = new Store();
+        store.setName("Store 1");
+        storeRepository.save(store);
+
+        Product product = new Product();
+        product.setName("Product 1");
+        product.setPrice(Money.of(15));
+        productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setStore(store);
+        inventory.setProduct(product);
+        inventory.setQuantity(10);
+        inventoryRepository.save(inventory);
+
+        List<StoreProductDTO> products = inventoryRepository.findProductsByStoreId(store.getId());
+
+        assertEquals(1, products.size());
+        assertEquals(product.getId(), products.get(0).getId());
+        assertEquals("Product 1", products.get(0).getName());
+        assertEquals(Money.of(15), products.get(0).getPrice());
+        assertEquals(10, products.get(0).getQuantity());
+    }
+
+    @Test
+    public void findProductsByStoreIdSingleStatementTest() {
+        Store store = new Store();
+        store.setName("Store 1");
+        storeRepository.save(store);
+
+        for (int i = 1; i <= 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(Money.of(15));
+            productRepository.save(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setStore(store);
+            inventory.setProduct(product);
+            inventory.setQuantity(i);
+            inventoryRepository.save(inventory);
+        }
+
+        SqlStatementStats stats = SqlStatementStats.begin();
+        List<StoreProductDTO> products;
+        try {
+            products = inventoryRepository.findProductsByStoreId(store.getId());
+        } finally {
+            SqlStatementStats.end();
+        }
+
+        assertEquals(3, products.size());
+        assertEquals(1, stats.getStatements(), "Список продуктов магазина должен читаться одним запросом");
+    }
+
     @Test
     public void findByStoreAndProductTest() {
         Store store = new Store();
@@ -78,4 +147,34 @@ public class InventoryRepositoryTest {
         assertEquals(store.getId(), foundInventory.get().getStore().getId());
         assertEquals(product.getId(), foundInventory.get().getProduct().getId());
     }
+
+    @Test
+    public void adjustQuantityTest() {
+        Account owner = new Account("owner", "ownerpass");
+        accountRepository.save(owner);
+
+        Store store = new Store("Store 1", owner);
+        storeRepository.save(store);
+
+        Product product = new Product();
+        product.setName("Product 1");
+        productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setStore(store);
+        inventory.setProduct(product);
+        inventory.setQuantity(10);
+        inventoryRepository.saveAndFlush(inventory);
+
+        Optional<InventoryStockView> added = inventoryRepository.adjustQuantity(
+                owner.getId(), store.getId(), product.getId(), 5);
+        Optional<InventoryStockView> overflow = inventoryRepository.adjustQuantity(
+                owner.getId(), store.getId(), product.getId(), 60);
+
+        assertTrue(added.isPresent());
+        assertEquals(15, added.get().getQuantity());
+        assertEquals("Store 1", added.get().getStoreName());
+        assertEquals("owner", added.get().getUsername());
+        assertTrue(overflow.isEmpty());
+    }
 }
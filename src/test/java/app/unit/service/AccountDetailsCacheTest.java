@@ -0,0 +1,101 @@
+package app.unit.service;
+
+import app.dto.AccountDetails;
+import app.entity.Account;
+import app.entity.Role;
+import app.service.AccountDetailsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class AccountDetailsCacheTest {
+
+    private MutableClock clock;
+    private AccountDetailsCache accountDetailsCache;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        accountDetailsCache = new AccountDetailsCache(Duration.ofMinutes(5), 2, clock);
+    }
+
+    @Test
+    public void testGetUserFromCache_Hit() {
+        accountDetailsCache.putUserInCache(details(1L, "first"));
+
+        AccountDetails cached = (AccountDetails) accountDetailsCache.getUserFromCache("first");
+
+        assertNotNull(cached);
+        assertEquals(1L, cached.getId(), "Значение должно быть '1'");
+    }
+
+    @Test
+    public void testGetUserFromCache_Expired() {
+        accountDetailsCache.putUserInCache(details(1L, "first"));
+
+        clock.advance(Duration.ofMinutes(6));
+
+        assertNull(accountDetailsCache.getUserFromCache("first"));
+    }
+
+    @Test
+    public void testPutUserInCache_EvictsEldest() {
+        accountDetailsCache.putUserInCache(details(1L, "first"));
+        accountDetailsCache.putUserInCache(details(2L, "second"));
+        accountDetailsCache.putUserInCache(details(3L, "third"));
+
+        assertNull(accountDetailsCache.getUserFromCache("first"));
+        assertNotNull(accountDetailsCache.getUserFromCache("third"));
+    }
+
+    @Test
+    public void testRemoveUserFromCache() {
+        accountDetailsCache.putUserInCache(details(1L, "first"));
+
+        accountDetailsCache.removeUserFromCache("first");
+
+        assertNull(accountDetailsCache.getUserFromCache("first"));
+    }
+
+    private AccountDetails details(Long id, String username) {
+        Role role = new Role(1L, "ROLE_USER");
+        Account account = new Account(id, username, "encodedPassword", null, Collections.singleton(role), true);
+        return new AccountDetails(account);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package app.unit.service;
 
+import app.dto.AccountDetails;
 import app.entity.Account;
 import app.entity.Role;
 import app.repository.AccountRepository;
 import app.repository.RoleRepository;
+import app.service.AccountDetailsCache;
 import app.service.AccountDetailsService;
+import app.utils.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -16,7 +19,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -34,6 +36,8 @@ class AccountDetailsServiceTest {
     private RoleRepository roleRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private AccountDetailsCache accountDetailsCache;
     @InjectMocks
     private AccountDetailsService accountDetailsService;
 
@@ -56,7 +60,7 @@ class AccountDetailsServiceTest {
 
         assertEquals(Collections.singleton(userRole), user.getRoles(), "Значение должно быть 'testUser'");
         assertEquals("encodedPassword", user.getPassword(), "Значение должно быть 'password'");
-        assertEquals(new BigDecimal(5000), user.getBalance(), "Значение должно быть '5000'");
+        assertEquals(Money.of(5000), user.getBalance(), "Значение должно быть '5000'");
         assertTrue(user.isActive());
         verify(accountRepository, times(1)).save(user);
     }
@@ -105,4 +109,23 @@ class AccountDetailsServiceTest {
 
         verify(accountRepository, times(1)).findByUsername(notFoundUser);
     }
+
+    @Test
+    public void testUpdatePassword_Success() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setUsername("testUser");
+        account.setPassword("oldHash");
+        account.setActive(true);
+        account.setRoles(Collections.singleton(new Role(1L, "ROLE_USER")));
+
+        when(accountRepository.findByUsername("testUser")).thenReturn(Optional.of(account));
+
+        UserDetails updated = accountDetailsService.updatePassword(new AccountDetails(account), "newHash");
+
+        assertEquals("newHash", updated.getPassword(), "Значение должно быть 'newHash'");
+        assertEquals("newHash", account.getPassword(), "Значение должно быть 'newHash'");
+        verify(accountRepository, times(1)).save(account);
+        verify(accountDetailsCache, times(1)).removeUserFromCache("testUser");
+    }
 }
\ No newline at end of file
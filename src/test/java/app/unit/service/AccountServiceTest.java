@@ -1,20 +1,31 @@
 package app.unit.service;
 
+import app.dto.AccountCredentialsView;
 import app.dto.AccountOperationResult;
 import app.enam.AccountOperationType;
+import app.enam.LedgerEntryType;
 import app.entity.Account;
 import app.handler.*;
 import app.repository.AccountRepository;
+import app.service.AccountDetailsCache;
 import app.service.AccountDetailsService;
 import app.service.AccountService;
+import app.service.BalanceLedgerService;
+import app.service.OutboxService;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -26,6 +37,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class AccountServiceTest {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private AccountDetailsService accountDetailsService;
     @Mock
@@ -34,11 +47,20 @@ public class AccountServiceTest {
     private SecurityUtils securityUtils;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private AccountDetailsCache accountDetailsCache;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private BalanceLedgerService balanceLedgerService;
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
 
     @InjectMocks
     private AccountService accountService;
 
     private Account testAccount;
+    private AccountCredentialsView testCredentials;
     private Account secondAccount;
     private String secondName;
     private String newUsername;
@@ -69,6 +91,11 @@ public class AccountServiceTest {
         testAccount.setUsername(username);
         testAccount.setPassword(password);
 
+        testCredentials = mock(AccountCredentialsView.class, withSettings().strictness(Strictness.LENIENT));
+        when(testCredentials.getId()).thenReturn(1L);
+        when(testCredentials.getPassword()).thenReturn(password);
+        when(testCredentials.isActive()).thenReturn(true);
+
         secondAccount = new Account();
         secondName = "secend";
         secondAccount.setId(2L);
@@ -80,7 +107,8 @@ public class AccountServiceTest {
         errorMessage = "Пользователь с таким именем уже существует: " + username;
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(username)).thenReturn(Optional.of(testAccount));
+        doThrow(new DataIntegrityViolationException("uk_account_username"))
+                .when(accountDetailsService).registrationUser(any(Account.class));
 
         InvalidUsernameException exception = assertThrows(InvalidUsernameException.class, () -> {
             accountService.registration(username, password);
@@ -96,8 +124,6 @@ public class AccountServiceTest {
         errorMessage = "Имя пользователя должно быть от 4 до 20 символов";
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(biggiUsername)).thenReturn(Optional.empty());
-
         InvalidUsernameException exception = assertThrows(InvalidUsernameException.class, () -> {
             accountService.registration(biggiUsername, password);
         });
@@ -112,8 +138,6 @@ public class AccountServiceTest {
         errorMessage = "Имя пользователя должно быть от 4 до 20 символов";
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(littleUsername)).thenReturn(Optional.empty());
-
         InvalidUsernameException exception = assertThrows(InvalidUsernameException.class, () -> {
             accountService.registration(littleUsername, password);
         });
@@ -128,8 +152,6 @@ public class AccountServiceTest {
         errorMessage = "Пароль должен быть от 6 до 30 символов";
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(newUsername)).thenReturn(Optional.empty());
-
         InvalidPasswordException exception = assertThrows(InvalidPasswordException.class, () -> {
             accountService.registration(newUsername, bigPass);
         });
@@ -144,8 +166,6 @@ public class AccountServiceTest {
         errorMessage = "Пароль должен быть от 6 до 30 символов";
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(newUsername)).thenReturn(Optional.empty());
-
         InvalidPasswordException exception = assertThrows(InvalidPasswordException.class, () -> {
             accountService.registration(newUsername, minimalisticPassword);
         });
@@ -157,8 +177,6 @@ public class AccountServiceTest {
 
     @Test
     public void register_SuccessTest() {
-        when(accountRepository.findByUsername(newUsername)).thenReturn(Optional.empty());
-
         AccountOperationResult result = accountService.registration(newUsername, "gggiano");
 
         assertNotNull(result);
@@ -167,7 +185,9 @@ public class AccountServiceTest {
                 "Должно быть значение 'Регистрация аккаунта'");
         assertEquals(result.getUsername(), newUsername, "Должно быть значение 'newuser'");
 
-        verify(accountRepository, times(1)).findByUsername(newUsername);
+        verify(accountDetailsService, times(1)).registrationUser(any(Account.class));
+        verify(balanceLedgerService).recordMovement(any(), any(), eq(LedgerEntryType.OPENING_BALANCE),
+                isNull(), isNull(), isNull());
     }
 
     @Test
@@ -175,7 +195,7 @@ public class AccountServiceTest {
         errorMessage = "Пользователя с данным именем не существует: " + newUsername;
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(accountRepository.findByUsername(newUsername)).thenReturn(Optional.empty());
+        when(accountRepository.findCredentialsByUsername(newUsername)).thenReturn(Optional.empty());
 
         InvalidAuthorizationException exception = assertThrows(InvalidAuthorizationException.class, () -> {
             accountService.login(newUsername, password);
@@ -193,9 +213,8 @@ public class AccountServiceTest {
 
         String wrongPassword = "wrong123";
 
-        when(accountRepository.findByUsername(username)).thenReturn(Optional.of(testAccount));
-        when(passwordEncoder.matches(wrongPassword, accountRepository.findByUsername(username).get().getPassword()))
-                .thenReturn(false);
+        when(accountRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(testCredentials));
+        when(passwordEncoder.matches(wrongPassword, password)).thenReturn(false);
 
         InvalidAuthorizationException exception = assertThrows(InvalidAuthorizationException.class, () -> {
             accountService.login(username, wrongPassword);
@@ -203,14 +222,29 @@ public class AccountServiceTest {
 
         assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
 
-        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountRepository, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    public void login_InactiveAccountTest() {
+        errorMessage = "Аккаунт не активен: " + username;
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(testCredentials.isActive()).thenReturn(false);
+        when(accountRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(testCredentials));
+        when(passwordEncoder.matches(password, password)).thenReturn(true);
+
+        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
+            accountService.login(username, password);
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
     }
 
     @Test
     public void login_SuccessTest() {
-        when(accountRepository.findByUsername(username)).thenReturn(Optional.of(testAccount));
-        when(passwordEncoder.matches(password, accountRepository.findByUsername(username).get().getPassword()))
-                .thenReturn(true);
+        when(accountRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(testCredentials));
+        when(passwordEncoder.matches(password, password)).thenReturn(true);
 
         AccountOperationResult result = accountService.login(username, password);
 
@@ -220,7 +254,22 @@ public class AccountServiceTest {
                 "Должно быть значение 'Авторизация'");
         assertEquals(result.getUsername(), username, "Должно быть значение 'testuser'");
 
-        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountRepository, times(1)).findCredentialsByUsername(username);
+        verify(accountRepository, never()).findByUsername(any());
+        verify(accountRepository, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    public void login_RehashesOutdatedPasswordTest() {
+        when(accountRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(testCredentials));
+        when(passwordEncoder.matches(password, password)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(password)).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("rehashed");
+
+        accountService.login(username, password);
+
+        verify(accountRepository, times(1)).updatePassword(1L, "rehashed");
+        verify(accountDetailsCache, times(1)).removeUserFromCache(username);
     }
 
     @Test
@@ -347,6 +396,8 @@ public class AccountServiceTest {
                 "Значение должно быть 'testuser -> newuser'");
 
         verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountDetailsCache, times(1)).removeUserFromCache(username);
+        verify(accountDetailsCache, times(1)).removeUserFromCache(newUsername);
     }
 
     @Test
@@ -473,5 +524,6 @@ public class AccountServiceTest {
         assertEquals(result.getUsername(), username, "Значение должно быть 'testuser'");
 
         verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountDetailsCache, times(1)).removeUserFromCache(username);
     }
 }
\ No newline at end of file
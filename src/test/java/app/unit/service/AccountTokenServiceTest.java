@@ -0,0 +1,81 @@
+package app.unit.service;
+
+import app.dto.AccountDetails;
+import app.entity.Account;
+import app.entity.Role;
+import app.service.AccountTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class AccountTokenServiceTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hmac";
+
+    private AccountDetails accountDetails;
+    private Instant now;
+
+    @BeforeEach
+    public void setUp() {
+        Account account = new Account(7L, "testuser", "encodedPassword", null,
+                Collections.singleton(new Role(1L, "ROLE_USER")), true);
+        accountDetails = new AccountDetails(account);
+        now = Instant.parse("2025-01-01T00:00:00Z");
+    }
+
+    @Test
+    public void testParseToken_Success() {
+        AccountTokenService service = new AccountTokenService(SECRET, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+
+        Optional<Authentication> authentication = service.parseToken(service.issueToken(accountDetails));
+
+        assertTrue(authentication.isPresent());
+        assertEquals(7L, authentication.get().getPrincipal(), "Значение должно быть '7'");
+        assertTrue(authentication.get().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_USER")));
+    }
+
+    @Test
+    public void testParseToken_TamperedSignature() {
+        AccountTokenService service = new AccountTokenService(SECRET, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+        AccountTokenService otherService = new AccountTokenService(SECRET + "-other", Duration.ofHours(1),
+                Clock.fixed(now, ZoneOffset.UTC));
+
+        String token = otherService.issueToken(accountDetails);
+
+        assertTrue(service.parseToken(token).isEmpty());
+        assertTrue(service.parseToken("garbage").isEmpty());
+    }
+
+    @Test
+    public void testParseToken_Expired() {
+        AccountTokenService issuer = new AccountTokenService(SECRET, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+        AccountTokenService verifier = new AccountTokenService(SECRET, Duration.ofHours(1),
+                Clock.fixed(now.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+        assertTrue(verifier.parseToken(issuer.issueToken(accountDetails)).isEmpty());
+    }
+
+    @Test
+    public void testConstructor_ShortSecret() {
+        assertThrows(IllegalStateException.class, () ->
+                new AccountTokenService("short", Duration.ofHours(1), Clock.systemUTC()));
+    }
+
+    @Test
+    public void testConstructor_PlaceholderSecret() {
+        assertThrows(IllegalStateException.class, () -> new AccountTokenService(
+                "change-me-to-a-long-random-secret-value", Duration.ofHours(1), Clock.systemUTC()));
+    }
+}
@@ -0,0 +1,235 @@
+package app.unit.service;
+
+import app.dto.BalanceHistoryDTO;
+import app.dto.BalanceMismatchView;
+import app.dto.LedgerCharge;
+import app.dto.LedgerEntryView;
+import app.enam.InventoryOperationType;
+import app.enam.LedgerEntryType;
+import app.entity.BalanceLedgerEntry;
+import app.entity.BalanceSnapshot;
+import app.handler.InsufficientBalanceException;
+import app.handler.InvalidInputException;
+import app.handler.NotFoundException;
+import app.repository.AccountRepository;
+import app.repository.BalanceLedgerRepository;
+import app.repository.BalanceSnapshotRepository;
+import app.service.BalanceLedgerMaintenance;
+import app.service.BalanceLedgerService;
+import app.utils.Money;
+import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerServiceTest {
+
+    @Mock
+    private BalanceLedgerRepository balanceLedgerRepository;
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private SecurityUtils securityUtils;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BalanceLedgerService balanceLedgerService;
+
+    @BeforeEach
+    public void setUp() {
+        balanceLedgerService = new BalanceLedgerService(balanceLedgerRepository, balanceSnapshotRepository,
+                accountRepository, securityUtils, new ServiceMetrics(new SimpleMeterRegistry()), true);
+    }
+
+    @Test
+    public void testGetBalance_SnapshotPlusLaterEntries() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L))
+                .thenReturn(Optional.of(new BalanceSnapshot(1L, 10L, new BigDecimal(4725), Instant.now())));
+        when(balanceLedgerRepository.sumAfter(1L, 10L)).thenReturn(new BigDecimal(-110));
+
+        assertEquals(new BigDecimal(4615), balanceLedgerService.getBalance(1L));
+        assertEquals(new BigDecimal(4615), balanceLedgerService.getBalance(1L));
+
+        verify(balanceSnapshotRepository, times(1)).findFirstByAccountIdOrderByLastEntryIdDesc(1L);
+    }
+
+    @Test
+    public void testGetBalance_WithoutSnapshotSumsWholeLedger() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(5000));
+
+        assertEquals(new BigDecimal(5000), balanceLedgerService.getBalance(1L));
+    }
+
+    @Test
+    public void testEvictSnapshots_ReloadsLatestSnapshot() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L))
+                .thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(5000));
+
+        balanceLedgerService.getBalance(1L);
+        balanceLedgerService.evictSnapshots();
+        balanceLedgerService.getBalance(1L);
+
+        verify(balanceSnapshotRepository, times(2)).findFirstByAccountIdOrderByLastEntryIdDesc(1L);
+    }
+
+    @Test
+    public void testChargeTrade_ReturnsBalanceFromLedger() {
+        LedgerEntryView entry = mock(LedgerEntryView.class);
+        when(entry.getAmount()).thenReturn(new BigDecimal("220.00"));
+        when(entry.getProductName()).thenReturn("Яблоко");
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L))
+                .thenReturn(Optional.of(new BalanceSnapshot(1L, 10L, new BigDecimal(5000), Instant.EPOCH)));
+        when(balanceLedgerRepository.sumAfter(1L, 10L)).thenReturn(new BigDecimal(-275));
+        when(balanceLedgerRepository.recordTrade(1L, 2L, 3L, -4, "SELL_PRODUCT")).thenReturn(Optional.of(entry));
+
+        LedgerCharge charge = balanceLedgerService.chargeTrade(1L, 2L, 3L, -4, InventoryOperationType.SELL_PRODUCT);
+
+        assertEquals(new BigDecimal("220.00"), charge.getAmount());
+        assertEquals(new BigDecimal("4945.00"), charge.getBalance());
+        assertEquals("Яблоко", charge.getProductName());
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    public void testChargeTrade_RejectsOverdraft() {
+        LedgerEntryView entry = mock(LedgerEntryView.class);
+        when(entry.getAmount()).thenReturn(new BigDecimal("-275.00"));
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(100));
+        when(balanceLedgerRepository.recordTrade(1L, 2L, 3L, 5, "BUY_PRODUCT")).thenReturn(Optional.of(entry));
+
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class,
+                () -> balanceLedgerService.chargeTrade(1L, 2L, 3L, 5, InventoryOperationType.BUY_PRODUCT));
+
+        assertEquals("Недостаточно средств на балансе для покупки", exception.getMessage());
+    }
+
+    @Test
+    public void testChargeTrade_ProductNotFound() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(5000));
+        when(balanceLedgerRepository.recordTrade(1L, 2L, 3L, 5, "BUY_PRODUCT")).thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> balanceLedgerService.chargeTrade(1L, 2L, 3L, 5, InventoryOperationType.BUY_PRODUCT));
+
+        assertEquals("Продукт не найден", exception.getMessage());
+    }
+
+    @Test
+    public void testChargeMovement_RejectsOverdraftWithoutRecording() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(100));
+
+        assertThrows(InsufficientBalanceException.class, () -> balanceLedgerService.chargeMovement(
+                1L, Money.of(-275), LedgerEntryType.BUY_PRODUCT, 2L, 3L, 5));
+
+        verify(balanceLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    public void testChargeMovement_SellIsAllowedOnNegativeBalance() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(-100));
+
+        Money balance = balanceLedgerService.chargeMovement(1L, Money.of(55), LedgerEntryType.SELL_PRODUCT, 2L, 3L, 1);
+
+        assertEquals(Money.of(-45), balance);
+        verify(balanceLedgerRepository).save(any(BalanceLedgerEntry.class));
+    }
+
+    @Test
+    public void testGetHistory_ReturnsMovementsAndBalance() {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-02-01T00:00:00Z");
+        BalanceLedgerEntry entry = new BalanceLedgerEntry(1L, new BigDecimal(-275), LedgerEntryType.BUY_PRODUCT,
+                2L, 3L, 5, from.plusSeconds(60));
+        entry.setId(11L);
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(balanceLedgerRepository.findByAccountIdAndCreatedAtBetweenOrderByIdDesc(1L, from, to, Limit.of(20)))
+                .thenReturn(List.of(entry));
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal(4725));
+
+        BalanceHistoryDTO history = balanceLedgerService.getHistory(from, to, 20);
+
+        assertEquals(new BigDecimal(4725), history.getBalance());
+        assertEquals(1, history.getMovements().size());
+        assertEquals(11L, history.getMovements().get(0).getId());
+        assertEquals(LedgerEntryType.BUY_PRODUCT, history.getMovements().get(0).getType());
+        assertEquals(new BigDecimal(-275), history.getMovements().get(0).getAmount());
+    }
+
+    @Test
+    public void testGetHistory_InvalidLimit() {
+        InvalidInputException exception = assertThrows(InvalidInputException.class,
+                () -> balanceLedgerService.getHistory(null, null, 501));
+
+        assertEquals("Количество записей должно быть от 1 до 500", exception.getMessage());
+        verifyNoInteractions(balanceLedgerRepository);
+    }
+
+    @Test
+    public void testGetHistory_InvalidPeriod() {
+        Instant now = Instant.now();
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class,
+                () -> balanceLedgerService.getHistory(now, now.minusSeconds(1), 10));
+
+        assertEquals("Начало периода должно быть раньше его окончания", exception.getMessage());
+    }
+
+    @Test
+    public void testReconcile_ReportsMismatches() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BalanceLedgerMaintenance maintenance = new BalanceLedgerMaintenance(balanceLedgerRepository,
+                balanceSnapshotRepository, balanceLedgerService, transactionManager, meterRegistry,
+                60_000, 30_000, 60_000);
+        BalanceMismatchView mismatch = mock(BalanceMismatchView.class);
+        when(balanceLedgerRepository.findMismatches()).thenReturn(List.of(mismatch));
+
+        List<BalanceMismatchView> result = maintenance.reconcile();
+
+        assertEquals(1, result.size());
+        assertEquals(1, meterRegistry.get(BalanceLedgerMaintenance.MISMATCH_GAUGE).gauge().value());
+    }
+
+    @Test
+    public void testTakeSnapshots_PrunesAndEvictsCache() {
+        BalanceLedgerMaintenance maintenance = new BalanceLedgerMaintenance(balanceLedgerRepository,
+                balanceSnapshotRepository, balanceLedgerService, transactionManager, new SimpleMeterRegistry(),
+                60_000, 30_000, 60_000);
+        when(balanceSnapshotRepository.takeSnapshots(any(Instant.class))).thenReturn(3);
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(balanceLedgerRepository.sumAfter(1L, 0L)).thenReturn(BigDecimal.ZERO);
+        balanceLedgerService.getBalance(1L);
+
+        assertEquals(3, maintenance.takeSnapshots());
+        balanceLedgerService.getBalance(1L);
+
+        verify(balanceSnapshotRepository).pruneSuperseded();
+        verify(balanceSnapshotRepository).refreshAccountBalances();
+        verify(balanceSnapshotRepository, times(2)).findFirstByAccountIdOrderByLastEntryIdDesc(1L);
+    }
+}
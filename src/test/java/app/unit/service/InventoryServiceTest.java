@@ -1,33 +1,53 @@
 package app.unit.service;
 
+import app.dto.InventoryOperationRequest;
 import app.dto.InventoryOperationResult;
+import app.dto.InventoryStockView;
+import app.dto.LedgerCharge;
 import app.dto.StoreProductDTO;
+import app.dto.StoreProductPage;
+import app.dto.StoreProductScroll;
 import app.enam.InventoryOperationType;
+import app.enam.LedgerEntryType;
 import app.entity.Account;
 import app.entity.Inventory;
 import app.entity.Product;
 import app.entity.Store;
+import app.handler.AccessDeniedException;
 import app.handler.ExceedsStorageCapacityException;
 import app.handler.InsufficientBalanceException;
 import app.handler.InvalidInputException;
 import app.handler.NotFoundException;
 import app.repository.AccountRepository;
 import app.repository.InventoryRepository;
-import app.repository.ProductRepository;
 import app.repository.StoreRepository;
+import app.service.BalanceLedgerService;
 import app.service.InventoryService;
+import app.service.OutboxService;
+import app.service.ProductCatalogService;
+import app.service.StoreStatsService;
+import app.service.TradeJournal;
+import app.utils.Money;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,17 +58,29 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 @ExtendWith(MockitoExtension.class)
 class InventoryServiceTest {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private StoreRepository storeRepository;
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private ProductRepository productRepository;
+    private ProductCatalogService productCatalogService;
     @Mock
     private InventoryRepository inventoryRepository;
     @Mock
     private SecurityUtils securityUtils;
-    @InjectMocks
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private StoreStatsService storeStatsService;
+    @Mock
+    private BalanceLedgerService balanceLedgerService;
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
+    @Mock
+    private TradeJournal tradeJournal;
+
     private InventoryService inventoryService;
 
     private Account testAccount;
@@ -58,12 +90,15 @@ class InventoryServiceTest {
     private String storeName;
     private String productName;
     private Integer count;
-    private List<Inventory> inventories;
     private String errorMessage;
     private String currentErrorMessage;
+    private Money ledgerBalance;
 
     @BeforeEach
     public void setUp() {
+        inventoryService = new InventoryService(accountRepository, productCatalogService, storeRepository,
+                inventoryRepository, securityUtils, serviceMetrics, outboxService, storeStatsService,
+                balanceLedgerService, Optional.empty());
         storeName = "Test Store";
         productName = "Яблоко";
         count = 5;
@@ -71,7 +106,7 @@ class InventoryServiceTest {
         testAccount = new Account();
         testAccount.setId(1L);
         testAccount.setUsername("testUser");
-        testAccount.setBalance(new BigDecimal(5000));
+        testAccount.setBalance(Money.of(5000));
 
         testStore = new Store();
         testStore.setId(1L);
@@ -81,7 +116,7 @@ class InventoryServiceTest {
         testProduct = new Product();
         testProduct.setId(1L);
         testProduct.setName(productName);
-        testProduct.setPrice(new BigDecimal(55));
+        testProduct.setPrice(Money.of(55));
 
         testInventory = new Inventory();
         testInventory.setId(1L);
@@ -89,12 +124,18 @@ class InventoryServiceTest {
         testInventory.setQuantity(1);
         testInventory.setProduct(testProduct);
 
-        inventories = List.of(testInventory);
+        ledgerBalance = Money.of(5000);
+        lenient().when(balanceLedgerService.chargeMovement(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    ledgerBalance = ledgerBalance.add(invocation.getArgument(1));
+                    return ledgerBalance;
+                });
     }
 
     @Test
     public void testGetAllProducts_Success() {
-        when(inventoryRepository.findByStoreId(1L)).thenReturn(inventories);
+        when(inventoryRepository.findProductsByStoreId(1L)).thenReturn(List.of(new StoreProductDTO(
+                testProduct.getId(), testProduct.getName(), testProduct.getPrice(), testInventory.getQuantity())));
 
         List<StoreProductDTO> result = inventoryService.getAllProducts(1L);
 
@@ -107,7 +148,7 @@ class InventoryServiceTest {
         assertEquals(testProduct.getPrice(), dto.getPrice(), "Значение должно быть '55'");
         assertEquals(testInventory.getQuantity(), dto.getQuantity(), "Значение должно быть '1'");
 
-        verify(inventoryRepository, times(1)).findByStoreId(1L);
+        verify(inventoryRepository, times(1)).findProductsByStoreId(1L);
     }
 
     @Test
@@ -115,7 +156,7 @@ class InventoryServiceTest {
         errorMessage = "Магазин пуст или его не существует";
         currentErrorMessage = "Сообщение должно быть : " + errorMessage;
 
-        when(inventoryRepository.findByStoreId(1L)).thenReturn(List.of());
+        when(inventoryRepository.findProductsByStoreId(1L)).thenReturn(List.of());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             inventoryService.getAllProducts(1L);
@@ -123,7 +164,65 @@ class InventoryServiceTest {
 
         assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
 
-        verify(inventoryRepository, times(1)).findByStoreId(1L);
+        verify(inventoryRepository, times(1)).findProductsByStoreId(1L);
+    }
+
+    @Test
+    public void testExportProducts_StreamsEveryRow() {
+        when(inventoryRepository.streamProductsByStoreId(1L)).thenReturn(Stream.of(
+                new StoreProductDTO(1L, "Хлеб", Money.of(15), 1),
+                new StoreProductDTO(2L, "Молоко", Money.of(25), 2)));
+        List<StoreProductDTO> exported = new ArrayList<>();
+
+        long count = inventoryService.exportProducts(1L, exported::add);
+
+        assertEquals(2L, count, "Значение должно быть '2'");
+        assertEquals(2, exported.size());
+        assertEquals("Молоко", exported.get(1).getName(), "Значение должно быть 'Молоко'");
+    }
+
+    @Test
+    public void testGetProductsPage_Success() {
+        StoreProductDTO dto = new StoreProductDTO(1L, productName, Money.of(55), 1);
+        when(inventoryRepository.findProductsByStoreId(1L, PageRequest.of(1, 1)))
+                .thenReturn(new PageImpl<>(List.of(dto), PageRequest.of(1, 1), 3));
+
+        StoreProductPage result = inventoryService.getProductsPage(1L, 1, 1);
+
+        assertEquals(1, result.getProducts().size());
+        assertEquals(3L, result.getTotalElements(), "Значение должно быть '3'");
+        assertEquals(3, result.getTotalPages(), "Значение должно быть '3'");
+    }
+
+    @Test
+    public void testScrollProducts_ReturnsNextCursor() {
+        List<StoreProductDTO> rows = List.of(
+                new StoreProductDTO(1L, "Хлеб", Money.of(15), 1),
+                new StoreProductDTO(2L, "Молоко", Money.of(25), 2),
+                new StoreProductDTO(3L, "Колбаса", Money.of(30), 3));
+        when(inventoryRepository.findProductsByStoreIdAfter(1L, 0L, PageRequest.ofSize(3))).thenReturn(rows);
+        when(inventoryRepository.findProductsByStoreIdAfter(1L, 2L, PageRequest.ofSize(3))).thenReturn(rows.subList(2, 3));
+
+        StoreProductScroll first = inventoryService.scrollProducts(1L, null, 2);
+        StoreProductScroll second = inventoryService.scrollProducts(1L, first.getNextCursor(), 2);
+
+        assertEquals(2, first.getProducts().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getProducts().size());
+        assertEquals(3L, second.getProducts().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testScrollProducts_InvalidCursor() {
+        errorMessage = "Некорректный курсор";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
+            inventoryService.scrollProducts(1L, "not a cursor", 10);
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
     }
 
     @Test
@@ -131,7 +230,7 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
         when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.empty());
 
         Inventory savedInventory = new Inventory();
@@ -151,7 +250,12 @@ class InventoryServiceTest {
         assertEquals(testStore.getName(), result.getStoreName(), "Значение должно быть 'Test Store'");
         assertEquals(testProduct.getName(), result.getProductName(), "Значение должно быть 'Яблоко'");
 
+        assertEquals(new BigDecimal("4725.00"), result.getRemainingBalance(), "Значение должно быть '4725'");
+        assertEquals(Money.of(5000), testAccount.getBalance(), "Торговая операция не должна менять account.balance");
+
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(balanceLedgerService).chargeMovement(1L, Money.of(-275), LedgerEntryType.BUY_PRODUCT,
+                1L, 1L, count);
     }
 
     @Test
@@ -159,7 +263,7 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
         when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.empty());
 
         Inventory savedInventory = new Inventory();
@@ -180,6 +284,7 @@ class InventoryServiceTest {
         assertEquals(testProduct.getName(), result.getProductName(), "Значение должно быть 'Яблоко'");
 
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(storeStatsService).applyTrade(1L, 1L, count, 0);
     }
 
     @Test
@@ -229,7 +334,7 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productCatalogService.findById(1L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             inventoryService.manageProduct(
@@ -250,7 +355,7 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
 
         InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
             inventoryService.manageProduct(
@@ -271,10 +376,10 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
         when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.empty());
-
-        testAccount.setBalance(new BigDecimal(5));
+        when(balanceLedgerService.chargeMovement(1L, Money.of(-275), LedgerEntryType.BUY_PRODUCT, 1L, 1L, count))
+                .thenThrow(new InsufficientBalanceException(errorMessage));
 
         InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> {
             inventoryService.manageProduct(
@@ -283,8 +388,14 @@ class InventoryServiceTest {
         });
 
         assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+        assertEquals(1, meterRegistry.get(ServiceMetrics.OPERATION_TIMER)
+                .tag("method", "manageProduct")
+                .tag("type", "BUY_PRODUCT")
+                .tag("outcome", "InsufficientBalanceException")
+                .timer().count());
 
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(storeStatsService, never()).applyTrade(any(), any(), anyInt(), anyInt());
     }
 
     @Test
@@ -295,7 +406,7 @@ class InventoryServiceTest {
         when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
         when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
         when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.of(testInventory));
 
         ExceedsStorageCapacityException exception = assertThrows(ExceedsStorageCapacityException.class, () -> {
@@ -308,4 +419,271 @@ class InventoryServiceTest {
 
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testManageProductAtomic_buyProduct() {
+        InventoryStockView stock = mock(InventoryStockView.class);
+        when(stock.getStoreName()).thenReturn(storeName);
+        when(stock.getUsername()).thenReturn(testAccount.getUsername());
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, count)).thenReturn(Optional.of(stock));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, count, InventoryOperationType.BUY_PRODUCT))
+                .thenReturn(new LedgerCharge(new BigDecimal("-275.00"), new BigDecimal(4725), productName));
+
+        InventoryOperationResult result = inventoryService.manageProductAtomic(
+                testStore.getId(), testProduct.getId(), count, InventoryOperationType.BUY_PRODUCT
+        );
+
+        assertEquals(InventoryOperationType.BUY_PRODUCT, result.getOperationName(),
+                "Значение должно быть 'Покупка продукта'");
+        assertEquals(new BigDecimal(4725), result.getRemainingBalance(), "Значение должно быть '4725'");
+        assertEquals(storeName, result.getStoreName(), "Значение должно быть 'Test Store'");
+        assertEquals(productName, result.getProductName(), "Значение должно быть 'Яблоко'");
+        assertEquals(testAccount.getUsername(), result.getOwnerName(), "Значение должно быть 'testUser'");
+
+        InOrder inOrder = inOrder(inventoryRepository, balanceLedgerService);
+        inOrder.verify(inventoryRepository).adjustQuantity(1L, 1L, 1L, count);
+        inOrder.verify(balanceLedgerService).chargeTrade(1L, 1L, 1L, count, InventoryOperationType.BUY_PRODUCT);
+        verify(inventoryRepository, never()).insertQuantity(any(), any(), any(), any());
+        verify(accountRepository, never()).findById(any());
+        verify(productCatalogService, never()).findById(any());
+    }
+
+    @Test
+    public void testManageProductAtomic_JournalsChargedAmountBeforeCommit() {
+        InventoryService journaled = journaledService();
+        InventoryStockView stock = mock(InventoryStockView.class);
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, count)).thenReturn(Optional.of(stock));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, count, InventoryOperationType.BUY_PRODUCT))
+                .thenReturn(new LedgerCharge(new BigDecimal("-275.00"), new BigDecimal("4725.00"), productName));
+        when(tradeJournal.write(1L, 1L, 1L, count, new BigDecimal("-275.00"))).thenReturn(7L);
+
+        journaled.manageProductAtomic(1L, 1L, count, InventoryOperationType.BUY_PRODUCT);
+
+        verify(tradeJournal).awaitDurable(7L);
+        verify(productCatalogService, never()).findById(any());
+    }
+
+    @Test
+    public void testManageProduct_JournalsAfterFlushInsideTransaction() {
+        InventoryService journaled = journaledService();
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.of(testInventory));
+        when(tradeJournal.write(1L, 1L, 1L, -1, new BigDecimal("55.00"))).thenReturn(3L);
+
+        journaled.manageProduct(1L, 1L, 1, InventoryOperationType.SELL_PRODUCT);
+
+        InOrder inOrder = inOrder(inventoryRepository, tradeJournal);
+        inOrder.verify(inventoryRepository).flush();
+        inOrder.verify(tradeJournal).write(1L, 1L, 1L, -1, new BigDecimal("55.00"));
+        inOrder.verify(tradeJournal).awaitDurable(3L);
+    }
+
+    @Test
+    public void testManageProduct_JournalFailureFailsTrade() {
+        InventoryService journaled = journaledService();
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.of(testInventory));
+        doThrow(new IllegalStateException("Журнал операций не сброшен на диск за 1000 мс"))
+                .when(tradeJournal).awaitDurable(anyLong());
+
+        assertThrows(IllegalStateException.class, () ->
+                journaled.manageProduct(1L, 1L, 1, InventoryOperationType.SELL_PRODUCT));
+    }
+
+    @Test
+    public void testManageProductAtomic_buyCreatesInventory() {
+        InventoryStockView stock = mock(InventoryStockView.class);
+        when(stock.getStoreName()).thenReturn(storeName);
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, count)).thenReturn(Optional.empty());
+        when(inventoryRepository.insertQuantity(1L, 1L, 1L, count)).thenReturn(Optional.of(stock));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, count, InventoryOperationType.BUY_PRODUCT))
+                .thenReturn(new LedgerCharge(new BigDecimal("-275.00"), new BigDecimal("4725.00"), productName));
+
+        InventoryOperationResult result = inventoryService.manageProductAtomic(
+                testStore.getId(), testProduct.getId(), count, InventoryOperationType.BUY_PRODUCT
+        );
+
+        assertNotNull(result);
+        verify(inventoryRepository, times(1)).insertQuantity(1L, 1L, 1L, count);
+    }
+
+    @Test
+    public void testManageProductAtomic_sellProduct() {
+        InventoryStockView stock = mock(InventoryStockView.class);
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, -count)).thenReturn(Optional.of(stock));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, -count, InventoryOperationType.SELL_PRODUCT))
+                .thenReturn(new LedgerCharge(new BigDecimal("275.00"), new BigDecimal("5275.00"), productName));
+
+        InventoryOperationResult result = inventoryService.manageProductAtomic(
+                testStore.getId(), testProduct.getId(), count, InventoryOperationType.SELL_PRODUCT
+        );
+
+        assertEquals(InventoryOperationType.SELL_PRODUCT, result.getOperationName(),
+                "Значение должно быть 'Продажа продукта'");
+        verify(inventoryRepository, never()).insertQuantity(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testManageProductAtomic_ExcessBalance() {
+        errorMessage = "Недостаточно средств на балансе для покупки";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, count))
+                .thenReturn(Optional.of(mock(InventoryStockView.class)));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, count, InventoryOperationType.BUY_PRODUCT))
+                .thenThrow(new InsufficientBalanceException(errorMessage));
+
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> {
+            inventoryService.manageProductAtomic(
+                    testStore.getId(), testProduct.getId(), count, InventoryOperationType.BUY_PRODUCT
+            );
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+        verify(storeStatsService, never()).applyTrade(any(), any(), anyInt(), anyInt());
+        verify(outboxService, never()).publish(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testManageProductAtomic_ExceedsStorage() {
+        errorMessage = "Превышена вместимость склада. Текущее количество: 1, максимальная вместимость: 69";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, 69)).thenReturn(Optional.empty());
+        when(inventoryRepository.insertQuantity(1L, 1L, 1L, 69)).thenReturn(Optional.empty());
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(inventoryRepository.findByStoreAndProduct(testStore, testProduct)).thenReturn(Optional.of(testInventory));
+
+        ExceedsStorageCapacityException exception = assertThrows(ExceedsStorageCapacityException.class, () -> {
+            inventoryService.manageProductAtomic(
+                    testStore.getId(), testProduct.getId(), 69, InventoryOperationType.BUY_PRODUCT
+            );
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+        verify(balanceLedgerService, never()).chargeTrade(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testManageProductAtomic_AccessDenied() {
+        errorMessage = "Пользователю не принадлежит магазин";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        Account anotherUser = new Account();
+        anotherUser.setId(2L);
+        testStore.setOwner(anotherUser);
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(inventoryRepository.adjustQuantity(1L, 1L, 1L, -count)).thenReturn(Optional.empty());
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+
+        AccessDeniedException exception = assertThrows(AccessDeniedException.class, () -> {
+            inventoryService.manageProductAtomic(
+                    testStore.getId(), testProduct.getId(), count, InventoryOperationType.SELL_PRODUCT
+            );
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+        verify(inventoryRepository, never()).insertQuantity(any(), any(), any(), any());
+        verify(balanceLedgerService, never()).chargeTrade(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testManageProducts_Success() {
+        ledgerBalance = Money.of(1000);
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findAllById(any())).thenReturn(List.of(testStore));
+        when(productCatalogService.findAllById(any())).thenReturn(Map.of(1L, testProduct));
+        when(inventoryRepository.findByStoreIdInAndProductIdIn(any(), any())).thenReturn(List.of(testInventory));
+
+        List<InventoryOperationResult> results = inventoryService.manageProducts(List.of(
+                new InventoryOperationRequest(1L, 1L, 10, InventoryOperationType.BUY_PRODUCT),
+                new InventoryOperationRequest(1L, 1L, 3, InventoryOperationType.SELL_PRODUCT)
+        ));
+
+        assertEquals(2, results.size());
+        assertEquals(new BigDecimal("450.00"), results.get(0).getRemainingBalance(), "Значение должно быть '450'");
+        assertEquals(new BigDecimal("615.00"), results.get(1).getRemainingBalance(), "Значение должно быть '615'");
+        assertEquals(8, testInventory.getQuantity(), "Значение должно быть '8'");
+        assertEquals(Money.of(5000), testAccount.getBalance(), "Торговая операция не должна менять account.balance");
+
+        verify(storeRepository, never()).findById(any());
+        verify(productCatalogService, never()).findById(any());
+        verify(inventoryRepository, never()).findByStoreAndProduct(any(), any());
+    }
+
+    @Test
+    public void testManageProducts_CreatesMissingInventory() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findAllById(any())).thenReturn(List.of(testStore));
+        when(productCatalogService.findAllById(any())).thenReturn(Map.of(1L, testProduct));
+        when(inventoryRepository.findByStoreIdInAndProductIdIn(any(), any())).thenReturn(List.of());
+
+        inventoryService.manageProducts(List.of(
+                new InventoryOperationRequest(1L, 1L, 2, InventoryOperationType.BUY_PRODUCT),
+                new InventoryOperationRequest(1L, 1L, 2, InventoryOperationType.BUY_PRODUCT)
+        ));
+
+        verify(inventoryRepository, times(1)).saveAll(argThat((List<Inventory> created) ->
+                created.size() == 1 && created.get(0).getQuantity() == 4));
+    }
+
+    @Test
+    public void testManageProducts_StoreNotFound() {
+        errorMessage = "Магазин не найден";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findAllById(any())).thenReturn(List.of());
+        when(productCatalogService.findAllById(any())).thenReturn(Map.of(1L, testProduct));
+        when(inventoryRepository.findByStoreIdInAndProductIdIn(any(), any())).thenReturn(List.of());
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+            inventoryService.manageProducts(List.of(
+                    new InventoryOperationRequest(2L, 1L, count, InventoryOperationType.BUY_PRODUCT)
+            ));
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+
+        verify(inventoryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testManageProducts_EmptyBatch() {
+        errorMessage = "Список операций не может быть пустым";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
+            inventoryService.manageProducts(List.of());
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+    }
+
+    private InventoryService journaledService() {
+        return new InventoryService(accountRepository, productCatalogService, storeRepository,
+                inventoryRepository, securityUtils, serviceMetrics, outboxService, storeStatsService,
+                balanceLedgerService, Optional.of(tradeJournal));
+    }
+}
@@ -0,0 +1,159 @@
+package app.unit.service;
+
+import app.dto.InventoryOperationResult;
+import app.enam.InventoryOperationType;
+import app.handler.InsufficientBalanceException;
+import app.handler.TradeConflictException;
+import app.repository.AccountRepository;
+import app.service.InventoryService;
+import app.service.InventoryTradeService;
+import app.service.TradeLockManager;
+import app.utils.SecurityUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class InventoryTradeServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private SecurityUtils securityUtils;
+    @Mock
+    private AccountRepository accountRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryTradeService inventoryTradeService;
+
+    private final InventoryOperationType buyOperation = InventoryOperationType.BUY_PRODUCT;
+    private InventoryOperationResult result;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        TradeLockManager tradeLockManager = new TradeLockManager(meterRegistry, 16, 100);
+        inventoryTradeService = new InventoryTradeService(inventoryService, tradeLockManager,
+                securityUtils, accountRepository, meterRegistry, Optional.empty(), true, 3, 0, 0);
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        result = new InventoryOperationResult(
+                buyOperation, new BigDecimal(4945), "Хлеб", 1, "testUser", "Test Store", true);
+    }
+
+    @Test
+    public void testManageProduct_RetriesAfterConflict() {
+        when(inventoryService.manageProduct(1L, 1L, 1, buyOperation))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Inventory", 1L))
+                .thenReturn(result);
+
+        InventoryOperationResult actual = inventoryTradeService.manageProduct(1L, 1L, 1, buyOperation);
+
+        assertSame(result, actual);
+        assertEquals(1, meterRegistry.get(InventoryTradeService.CONFLICT_COUNTER)
+                .tag("method", "manageProduct")
+                .tag("outcome", "retried").counter().count());
+        verify(inventoryService, times(2)).manageProduct(1L, 1L, 1, buyOperation);
+    }
+
+    @Test
+    public void testManageProduct_ConflictAttemptsExhausted() {
+        when(inventoryService.manageProduct(1L, 1L, 1, buyOperation))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Inventory", 1L));
+
+        TradeConflictException exception = assertThrows(TradeConflictException.class, () -> {
+            inventoryTradeService.manageProduct(1L, 1L, 1, buyOperation);
+        });
+
+        assertEquals("Данные изменились во время операции, повторите запрос позже", exception.getMessage());
+        assertEquals(2, meterRegistry.get(InventoryTradeService.CONFLICT_COUNTER)
+                .tag("method", "manageProduct")
+                .tag("outcome", "retried").counter().count());
+        assertEquals(1, meterRegistry.get(InventoryTradeService.CONFLICT_COUNTER)
+                .tag("method", "manageProduct")
+                .tag("outcome", "exhausted").counter().count());
+        verify(inventoryService, times(3)).manageProduct(1L, 1L, 1, buyOperation);
+    }
+
+    @Test
+    public void testManageProduct_BusinessErrorIsNotRetried() {
+        when(inventoryService.manageProduct(1L, 1L, 1, buyOperation))
+                .thenThrow(new InsufficientBalanceException("Недостаточно средств на балансе для покупки"));
+
+        assertThrows(InsufficientBalanceException.class, () -> {
+            inventoryTradeService.manageProduct(1L, 1L, 1, buyOperation);
+        });
+
+        verify(inventoryService, times(1)).manageProduct(1L, 1L, 1, buyOperation);
+    }
+
+    @Test
+    public void testManageProductAtomic_RetriesAfterDeadlock() {
+        when(inventoryService.manageProductAtomic(1L, 1L, 1, buyOperation))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenThrow(new PessimisticLockingFailureException("could not serialize access"))
+                .thenReturn(result);
+
+        InventoryOperationResult actual = inventoryTradeService.manageProductAtomic(1L, 1L, 1, buyOperation);
+
+        assertSame(result, actual);
+        assertEquals(2, meterRegistry.get(InventoryTradeService.CONFLICT_COUNTER)
+                .tag("method", "manageProductAtomic")
+                .tag("outcome", "retried").counter().count());
+        verify(inventoryService, times(3)).manageProductAtomic(1L, 1L, 1, buyOperation);
+    }
+
+    @Test
+    public void testManageProductAtomic_DeadlockAttemptsExhausted() {
+        when(inventoryService.manageProductAtomic(1L, 1L, 1, buyOperation))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        assertThrows(TradeConflictException.class, () -> {
+            inventoryTradeService.manageProductAtomic(1L, 1L, 1, buyOperation);
+        });
+
+        verify(inventoryService, times(3)).manageProductAtomic(1L, 1L, 1, buyOperation);
+    }
+
+    @Test
+    public void testManageProduct_AccountStripeIsTakenWithLocksDisabled() throws InterruptedException {
+        TradeLockManager tradeLockManager = new TradeLockManager(meterRegistry, 16, 100);
+        InventoryTradeService unlocked = new InventoryTradeService(inventoryService, tradeLockManager,
+                securityUtils, accountRepository, meterRegistry, Optional.empty(), false, 3, 0, 0);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (TradeLockManager.Lease lease = tradeLockManager.acquire(List.of(TradeLockManager.accountKey(1L)))) {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        held.await();
+        try {
+            assertThrows(TradeConflictException.class, () -> unlocked.manageProduct(1L, 1L, 1, buyOperation));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        verifyNoInteractions(inventoryService);
+    }
+}
@@ -0,0 +1,126 @@
+package app.unit.service;
+
+import app.service.InventoryWriteAheadLog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class InventoryWriteAheadLogTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testReplay_LatestVersionWins() {
+        List<Path> segments;
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            wal.commit(wal.reserve(1L, 5), 1L, () -> 1L << 32 | 5);
+            wal.commit(wal.reserve(2L, 3), 2L, () -> 1L << 32 | 3);
+            wal.rotate();
+            long first = wal.reserve(1L, 1);
+            long second = wal.reserve(1L, 1);
+            wal.commit(second, 1L, () -> 3L << 32 | 7);
+            wal.commit(first, 1L, () -> 2L << 32 | 6);
+            segments = wal.rotate();
+        }
+
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments);
+
+        assertEquals(2, segments.size());
+        assertEquals(Map.of(1L, 7, 2L, 3), recovery.committed());
+        assertTrue(recovery.inDoubt().isEmpty());
+    }
+
+    @Test
+    public void testReplay_UnfinishedReservationIsInDoubt() {
+        List<Path> segments;
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            wal.awaitDurable(wal.reserve(1L, 4));
+            wal.awaitDurable(wal.reserve(1L, -1));
+            wal.awaitDurable(wal.revert(wal.reserve(2L, 2)));
+            segments = wal.rotate();
+        }
+
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments);
+
+        assertEquals(Map.of(1L, 3), recovery.inDoubt());
+        assertTrue(recovery.committed().isEmpty());
+    }
+
+    @Test
+    public void testRotate_CarriesPendingReservationsForward() {
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            long reservation = wal.reserve(1L, 2);
+            wal.delete(wal.rotate());
+
+            List<Path> segments = wal.rotate();
+
+            assertEquals(Map.of(1L, 2), InventoryWriteAheadLog.replay(segments).inDoubt());
+            wal.commit(reservation, 1L, () -> 1L << 32 | 2);
+            assertTrue(InventoryWriteAheadLog.replay(wal.rotate()).inDoubt().isEmpty());
+        }
+    }
+
+    @Test
+    public void testReplay_SkipsTornLine() throws IOException {
+        List<Path> segments;
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            wal.commit(wal.reserve(1L, 5), 1L, () -> 1L << 32 | 5);
+            segments = wal.rotate();
+        }
+        Files.writeString(segments.get(0), "C 2 1 2", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments);
+
+        assertEquals(Map.of(1L, 5), recovery.committed());
+    }
+
+    @Test
+    public void testReplay_ReadsLegacyLines() throws IOException {
+        Path segment = directory.resolve("inventory-0000000000000000000.wal");
+        Files.writeString(segment, "1 1 5\n1 2 6\n", StandardCharsets.US_ASCII);
+
+        assertEquals(Map.of(1L, 6), InventoryWriteAheadLog.replay(List.of(segment)).committed());
+    }
+
+    @Test
+    public void testReopen_ExistingSegmentsAreSealed() {
+        long reservation;
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            reservation = wal.reserve(1L, 5);
+            wal.commit(reservation, 1L, () -> 1L << 32 | 5);
+        }
+
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            List<Path> sealed = wal.getSealedSegments();
+
+            assertEquals(1, sealed.size());
+            assertEquals(Map.of(1L, 5), InventoryWriteAheadLog.replay(sealed).committed());
+            assertTrue(wal.reserve(1L, 1) > reservation);
+        }
+    }
+
+    @Test
+    public void testDelete_RemovesSealedSegments() {
+        try (InventoryWriteAheadLog wal = new InventoryWriteAheadLog(directory)) {
+            wal.commit(wal.reserve(1L, 5), 1L, () -> 1L << 32 | 5);
+            List<Path> segments = wal.rotate();
+
+            wal.delete(segments);
+
+            assertTrue(wal.getSealedSegments().isEmpty());
+            assertFalse(Files.exists(segments.get(0)));
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package app.unit.service;
+
+import app.dto.InventoryOperationResult;
+import app.dto.LedgerCharge;
+import app.dto.StoreOwnerView;
+import app.enam.InventoryOperationType;
+import app.entity.Account;
+import app.entity.Product;
+import app.entity.Store;
+import app.handler.AccessDeniedException;
+import app.handler.ExceedsStorageCapacityException;
+import app.handler.InsufficientBalanceException;
+import app.handler.TradeConflictException;
+import app.repository.AccountRepository;
+import app.repository.StoreRepository;
+import app.service.BalanceLedgerService;
+import app.service.InventoryWriteAheadLog;
+import app.service.InventoryWriteBehindEngine;
+import app.service.OutboxService;
+import app.service.ProductCatalogService;
+import app.service.StoreStatsService;
+import app.utils.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class InventoryWriteBehindEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private StoreRepository storeRepository;
+    @Mock
+    private ProductCatalogService productCatalogService;
+    @Mock
+    private SecurityUtils securityUtils;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private StoreStatsService storeStatsService;
+    @Mock
+    private BalanceLedgerService balanceLedgerService;
+    @Captor
+    private ArgumentCaptor<List<Object[]>> batchCaptor;
+
+    @TempDir
+    private Path walDirectory;
+
+    private InventoryWriteAheadLog wal;
+    private InventoryWriteBehindEngine engine;
+    private Store testStore;
+    private Product testProduct;
+
+    @BeforeEach
+    public void setUp() {
+        wal = new InventoryWriteAheadLog(walDirectory);
+        engine = new InventoryWriteBehindEngine(jdbcTemplate, transactionManager, accountRepository,
+                storeRepository, productCatalogService, securityUtils, outboxService, storeStatsService,
+                balanceLedgerService, Optional.empty(), wal, 60_000);
+
+        Account owner = new Account();
+        owner.setId(1L);
+        testStore = new Store();
+        testStore.setId(1L);
+        testStore.setOwner(owner);
+        testProduct = new Product();
+        testProduct.setId(1L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        wal.close();
+    }
+
+    @Test
+    public void testTrade_BuyKeepsStockInMemory() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        StoreOwnerView store = ownedStore();
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(store));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 5, InventoryOperationType.BUY_PRODUCT))
+                .thenReturn(new LedgerCharge(new BigDecimal("-275.00"), new BigDecimal(4725), "Яблоко"));
+
+        InventoryOperationResult result = engine.trade(1L, 1L, 5, InventoryOperationType.BUY_PRODUCT);
+
+        assertEquals(new BigDecimal(4725), result.getRemainingBalance());
+        assertEquals("Test Store", result.getStoreName());
+        assertEquals(Optional.of(5), engine.getQuantity(1L, 1L));
+        assertEquals(1, engine.getDirtyCount());
+        verify(outboxService).publish("store", 1L, InventoryOperationType.BUY_PRODUCT, result);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void testTrade_InsufficientBalanceRevertsReservation() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(mock(StoreOwnerView.class)));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 5, InventoryOperationType.BUY_PRODUCT))
+                .thenThrow(new InsufficientBalanceException("Недостаточно средств на балансе для покупки"));
+
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> {
+            engine.trade(1L, 1L, 5, InventoryOperationType.BUY_PRODUCT);
+        });
+
+        assertEquals("Недостаточно средств на балансе для покупки", exception.getMessage());
+        assertEquals(Optional.of(0), engine.getQuantity(1L, 1L));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    public void testTrade_ExceedsStorageCapacity() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(1L), eq(1L))).thenReturn(68);
+
+        ExceedsStorageCapacityException exception = assertThrows(ExceedsStorageCapacityException.class, () -> {
+            engine.trade(1L, 1L, 2, InventoryOperationType.BUY_PRODUCT);
+        });
+
+        assertEquals("Превышена вместимость склада. Текущее количество: 68, максимальная вместимость: 69",
+                exception.getMessage());
+        verify(balanceLedgerService, never()).chargeTrade(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testTrade_StoreOfAnotherOwner() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(2L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+
+        AccessDeniedException exception = assertThrows(AccessDeniedException.class, () -> {
+            engine.trade(1L, 1L, 1, InventoryOperationType.BUY_PRODUCT);
+        });
+
+        assertEquals("Пользователю не принадлежит магазин", exception.getMessage());
+    }
+
+    @Test
+    public void testFlush_WritesDirtyStockAndDropsJournal() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        StoreOwnerView store = ownedStore();
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(store));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 3, InventoryOperationType.BUY_PRODUCT)).thenReturn(charge());
+        engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT);
+
+        int flushed = engine.flush();
+
+        assertEquals(1, flushed);
+        assertEquals(0, engine.getDirtyCount());
+        assertTrue(wal.getSealedSegments().isEmpty());
+        verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+        assertArrayEquals(new Object[]{1L, 1L, 3}, batchCaptor.getValue().get(0));
+        verify(storeStatsService).recompute(Set.of(1L));
+    }
+
+    @Test
+    public void testFlush_FailureKeepsStockDirty() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        StoreOwnerView store = ownedStore();
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(store));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 3, InventoryOperationType.BUY_PRODUCT)).thenReturn(charge());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+        engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT);
+
+        assertThrows(IllegalStateException.class, () -> engine.flush());
+
+        assertEquals(1, engine.getDirtyCount());
+        assertEquals(1, wal.getSealedSegments().size());
+    }
+
+    @Test
+    public void testTrade_ReservationIsDurableBeforeCharge() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        StoreOwnerView store = ownedStore();
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(store));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 3, InventoryOperationType.BUY_PRODUCT)).thenAnswer(invocation -> {
+            assertEquals(Map.of(1L << 32 | 1L, 3), InventoryWriteAheadLog.replay(segments()).inDoubt());
+            assertEquals(Optional.of(0), engine.getQuantity(1L, 1L));
+            return charge();
+        });
+
+        engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT);
+
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments());
+        assertTrue(recovery.inDoubt().isEmpty());
+        assertEquals(Map.of(1L << 32 | 1L, 3), recovery.committed());
+    }
+
+    @Test
+    public void testTrade_FailedChargeWritesCompensation() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.of(mock(StoreOwnerView.class)));
+        when(balanceLedgerService.chargeTrade(1L, 1L, 1L, 3, InventoryOperationType.BUY_PRODUCT))
+                .thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT));
+
+        InventoryWriteAheadLog.Recovery recovery = InventoryWriteAheadLog.replay(segments());
+        assertTrue(recovery.inDoubt().isEmpty());
+        assertTrue(recovery.committed().isEmpty());
+        assertEquals(0, engine.getDirtyCount());
+    }
+
+    @Test
+    public void testTrade_OwnerMismatchIsRecheckedInDatabase() {
+        Account newOwner = new Account();
+        newOwner.setId(2L);
+        Store transferred = new Store();
+        transferred.setId(1L);
+        transferred.setOwner(newOwner);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore), Optional.of(transferred));
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L, 2L);
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        StoreOwnerView store = ownedStore();
+        when(storeRepository.findOwnedStore(eq(1L), anyLong())).thenReturn(Optional.of(store));
+        when(balanceLedgerService.chargeTrade(anyLong(), eq(1L), eq(1L), eq(1), eq(InventoryOperationType.BUY_PRODUCT)))
+                .thenReturn(charge());
+
+        engine.trade(1L, 1L, 1, InventoryOperationType.BUY_PRODUCT);
+        engine.trade(1L, 1L, 1, InventoryOperationType.BUY_PRODUCT);
+
+        assertEquals(Optional.of(2), engine.getQuantity(1L, 1L));
+        verify(storeRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testTrade_OwnerChangedBeforeChargeRevertsReservation() {
+        Account newOwner = new Account();
+        newOwner.setId(2L);
+        Store transferred = new Store();
+        transferred.setId(1L);
+        transferred.setOwner(newOwner);
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore), Optional.of(transferred));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(AccessDeniedException.class, () -> engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT));
+
+        assertEquals(Optional.of(0), engine.getQuantity(1L, 1L));
+        verify(balanceLedgerService, never()).chargeTrade(any(), any(), any(), anyInt(), any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    public void testTrade_ChargeWithoutOwnerChangeIsConflict() {
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(productCatalogService.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(storeRepository.findOwnedStore(1L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(TradeConflictException.class, () -> engine.trade(1L, 1L, 3, InventoryOperationType.BUY_PRODUCT));
+
+        assertEquals(Optional.of(0), engine.getQuantity(1L, 1L));
+    }
+
+    @Test
+    public void testStart_ReplaysJournalLeftAfterCrash() throws InterruptedException {
+        long key = 1L << 32 | 2L;
+        wal.commit(wal.reserve(key, 2), key, () -> 4L << 32 | 11);
+        wal.close();
+        wal = new InventoryWriteAheadLog(walDirectory);
+        engine = new InventoryWriteBehindEngine(jdbcTemplate, transactionManager, accountRepository,
+                storeRepository, productCatalogService, securityUtils, outboxService, storeStatsService,
+                balanceLedgerService, Optional.empty(), wal, 60_000);
+
+        engine.start();
+        engine.stop();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+        assertArrayEquals(new Object[]{1L, 2L, 11}, batchCaptor.getValue().get(0));
+        assertTrue(wal.getSealedSegments().isEmpty());
+    }
+
+    @Test
+    public void testStart_AppliesUnfinishedReservation() throws InterruptedException {
+        long key = 1L << 32 | 2L;
+        wal.awaitDurable(wal.reserve(key, -3));
+        wal.close();
+        wal = new InventoryWriteAheadLog(walDirectory);
+        engine = new InventoryWriteBehindEngine(jdbcTemplate, transactionManager, accountRepository,
+                storeRepository, productCatalogService, securityUtils, outboxService, storeStatsService,
+                balanceLedgerService, Optional.empty(), wal, 60_000);
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(1L), eq(2L))).thenReturn(10);
+
+        engine.start();
+        engine.stop();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+        assertArrayEquals(new Object[]{1L, 2L, 7}, batchCaptor.getValue().get(0));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private StoreOwnerView ownedStore() {
+        StoreOwnerView store = mock(StoreOwnerView.class);
+        when(store.getStoreName()).thenReturn("Test Store");
+        when(store.getUsername()).thenReturn("testUser");
+        return store;
+    }
+
+    private static LedgerCharge charge() {
+        return new LedgerCharge(new BigDecimal("-165.00"), new BigDecimal("4835.00"), "Яблоко");
+    }
+}
@@ -0,0 +1,62 @@
+package app.unit.service;
+
+import app.dto.StoreProductDTO;
+import app.utils.Money;
+import app.utils.MoneyConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class MoneyTest {
+
+    @Test
+    public void testArithmetic_WorksInCents() {
+        Money price = Money.of(new BigDecimal("55.90"));
+
+        assertEquals(5590, price.cents());
+        assertEquals(Money.ofCents(167700), price.multiply(30));
+        assertEquals(Money.of(new BigDecimal("4944.10")), Money.of(5000).subtract(price));
+        assertEquals(Money.of(new BigDecimal("-55.90")), price.negate());
+        assertTrue(Money.of(5).isLessThan(price.multiply(1)));
+    }
+
+    @Test
+    public void testArithmetic_OverflowIsRejected() {
+        Money huge = Money.ofCents(Long.MAX_VALUE / 2 + 1);
+
+        assertThrows(ArithmeticException.class, () -> huge.multiply(2));
+        assertThrows(ArithmeticException.class, () -> huge.add(huge));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    public void testOf_RejectsFractionOfCent() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    public void testConverter_KeepsTwoDecimalPlaces() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("4725.00"), converter.convertToDatabaseColumn(Money.of(4725)));
+        assertEquals(Money.ofCents(1550), converter.convertToEntityAttribute(new BigDecimal("15.50")));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    public void testJson_SerializedAsDecimalNumber() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        StoreProductDTO product = new StoreProductDTO(1L, "Хлеб", Money.of(new BigDecimal("15.50")), 3);
+
+        String json = objectMapper.writeValueAsString(product);
+
+        assertTrue(json.contains("\"price\":15.50"), json);
+        assertEquals(Money.ofCents(1550), objectMapper.readValue(json, StoreProductDTO.class).getPrice());
+    }
+}
@@ -0,0 +1,111 @@
+package app.unit.service;
+
+import app.entity.OutboxEvent;
+import app.repository.OutboxEventRepository;
+import app.service.FileOutboxSink;
+import app.service.OutboxRelay;
+import app.service.OutboxSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OutboxSink sink;
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxEvent event;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        event = new OutboxEvent("store", 1L, "CREATE",
+                "{\"operationType\":\"Создание магазина\",\"storeName\":\"Test Store\"}", Instant.now());
+        event.setId(7L);
+    }
+
+    @Test
+    public void testRelayBatch_DeliversAndMarksPublished() {
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(sink), transactionManager,
+                meterRegistry, 100, 1000, 24);
+        when(outboxEventRepository.lockUnpublished(100)).thenReturn(List.of(event));
+
+        int delivered = relay.relayBatch();
+
+        assertEquals(1, delivered);
+        verify(sink).deliver(List.of(event));
+        verify(outboxEventRepository).markPublished(eq(List.of(7L)), any(Instant.class));
+        assertEquals(1, meterRegistry.get(OutboxRelay.DELIVERED_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testRelayBatch_SinkFailureKeepsEventsUnpublished() {
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(sink), transactionManager,
+                meterRegistry, 100, 1000, 24);
+        when(outboxEventRepository.lockUnpublished(100)).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("sink down")).when(sink).deliver(List.of(event));
+
+        assertThrows(IllegalStateException.class, relay::relayBatch);
+
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void testRelayBatch_NothingToDeliver() {
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(sink), transactionManager,
+                meterRegistry, 100, 1000, 24);
+        when(outboxEventRepository.lockUnpublished(100)).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verifyNoInteractions(sink);
+    }
+
+    @Test
+    public void testFileSink_WritesJsonLines() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path file = directory.resolve("events.jsonl");
+        FileOutboxSink fileSink = new FileOutboxSink(file, objectMapper);
+
+        fileSink.deliver(List.of(event));
+        fileSink.deliver(List.of(event));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        JsonNode line = objectMapper.readTree(lines.get(0));
+        assertEquals(7L, line.get("id").asLong());
+        assertEquals("CREATE", line.get("eventType").asText());
+        assertEquals("Test Store", line.get("payload").get("storeName").asText());
+    }
+}
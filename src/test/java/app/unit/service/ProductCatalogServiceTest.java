@@ -0,0 +1,145 @@
+package app.unit.service;
+
+import app.dto.ProductCacheStats;
+import app.entity.Product;
+import app.repository.ProductRepository;
+import app.service.ProductCatalogService;
+import app.service.StoreStatsService;
+import app.utils.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StoreStatsService storeStatsService;
+
+    private ProductCatalogService productCatalogService;
+
+    private Product bread;
+    private Product milk;
+
+    @BeforeEach
+    public void setUp() {
+        productCatalogService = new ProductCatalogService(productRepository, storeStatsService, 1);
+        bread = new Product(1L, "Хлеб", Money.of(15));
+        milk = new Product(2L, "Молоко", Money.of(25));
+    }
+
+    @Test
+    public void testFindById_SecondCallIsHit() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+
+        productCatalogService.findById(1L);
+        Optional<Product> result = productCatalogService.findById(1L);
+
+        assertTrue(result.isPresent());
+        assertEquals("Хлеб", result.get().getName(), "Значение должно быть 'Хлеб'");
+
+        ProductCacheStats stats = productCatalogService.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testFindById_EvictsEldestWhenFull() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(milk));
+
+        productCatalogService.findById(1L);
+        productCatalogService.findById(2L);
+        productCatalogService.findById(1L);
+
+        ProductCacheStats stats = productCatalogService.getStats();
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testFindAllById_LoadsOnlyMisses() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+        when(productRepository.findAllById(Set.of(2L))).thenReturn(List.of(milk));
+
+        productCatalogService = new ProductCatalogService(productRepository, storeStatsService, 10);
+        productCatalogService.findById(1L);
+        Map<Long, Product> result = productCatalogService.findAllById(List.of(1L, 2L));
+
+        assertEquals(2, result.size());
+        verify(productRepository, times(1)).findAllById(Set.of(2L));
+    }
+
+    @Test
+    public void testSave_InvalidatesEntry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+        Product changed = new Product(1L, "Хлеб", Money.of(20));
+        when(productRepository.save(changed)).thenReturn(changed);
+
+        productCatalogService.findById(1L);
+        productCatalogService.save(changed);
+        productCatalogService.findById(1L);
+
+        verify(productRepository, times(2)).findById(1L);
+        verify(storeStatsService).recomputeForProduct(1L);
+    }
+
+    @Test
+    public void testFindById_LoadRacingInvalidationIsNotCached() {
+        productCatalogService = new ProductCatalogService(productRepository, storeStatsService, 10);
+        Product repriced = new Product(1L, "Хлеб", Money.of(20));
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            productCatalogService.invalidate(1L);
+            return Optional.of(bread);
+        }).thenReturn(Optional.of(repriced));
+
+        productCatalogService.findById(1L);
+        Optional<Product> result = productCatalogService.findById(1L);
+
+        assertEquals(Money.of(20), result.get().getPrice());
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testFindById_HitReturnsDetachedCopy() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+
+        productCatalogService.findById(1L);
+        Product first = productCatalogService.findById(1L).get();
+        first.setPrice(Money.of(1));
+        Product second = productCatalogService.findById(1L).get();
+
+        assertNotSame(bread, first);
+        assertEquals(Money.of(15), second.getPrice());
+    }
+
+    @Test
+    public void testFindById_ExpiredEntryIsReloaded() throws InterruptedException {
+        productCatalogService = new ProductCatalogService(productRepository, storeStatsService, 10, 1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+
+        productCatalogService.findById(1L);
+        Thread.sleep(5);
+        productCatalogService.findById(1L);
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+}
@@ -10,16 +10,24 @@ import app.handler.InvalidInputException;
 import app.handler.NotFoundException;
 import app.repository.AccountRepository;
 import app.repository.StoreRepository;
+import app.service.OutboxService;
 import app.service.StoreService;
+import app.service.StoreStatsService;
 import app.utils.SecurityUtils;
+import app.utils.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,12 +39,20 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 @ExtendWith(MockitoExtension.class)
 class StoreServiceTest {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private StoreRepository storeRepository;
     @Mock
     private AccountRepository accountRepository;
     @Mock
     private SecurityUtils securityUtils;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private StoreStatsService storeStatsService;
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
     @InjectMocks
     private StoreService storeService;
 
@@ -76,6 +92,8 @@ class StoreServiceTest {
         assertEquals(storeName, result.getStoreName(), "Должен вернуть название магазина");
 
         verify(storeRepository, times(1)).save(any(Store.class));
+        verify(storeStatsService).initialize(null);
+        verify(outboxService).publish("store", null, StoreOperationType.CREATE, result);
     }
 
     @Test
@@ -92,6 +110,7 @@ class StoreServiceTest {
         assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
 
         verify(storeRepository, never()).save(any(Store.class));
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -112,6 +131,25 @@ class StoreServiceTest {
         verify(storeRepository, never()).save(any(Store.class));
     }
 
+    @Test
+    public void createStore_ConcurrentDuplicateTest() {
+        errorMessage = "Магазин с названием 'Test Store' существует";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.existsByName(storeName)).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenThrow(constraintViolation("uk_store_name"));
+
+        AlreadyExistsException exception = assertThrows(AlreadyExistsException.class, () -> {
+            storeService.createStore(storeName);
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+
+        verifyNoInteractions(storeStatsService, outboxService);
+    }
+
     @Test
     public void createStore_UserNotFountTest() {
         errorMessage = "Пользователь не найден";
@@ -310,4 +348,60 @@ class StoreServiceTest {
 
         verify(storeRepository, times(1)).save(any(Store.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeName_ConcurrentDuplicateTest() {
+        errorMessage = "Магазин с названием 'Самый новый' существует";
+        currentErrorMessage = "Сообщение должно быть : " + errorMessage;
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findByName(storeName)).thenReturn(Optional.of(testStore));
+        doThrow(constraintViolation("uk_store_name")).when(storeRepository).flush();
+
+        AlreadyExistsException exception = assertThrows(AlreadyExistsException.class, () -> {
+            storeService.changeName(storeName, "Самый новый");
+        });
+
+        assertEquals(errorMessage, exception.getMessage(), currentErrorMessage);
+
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    public void createStore_OtherIntegrityViolationIsRethrownTest() {
+        DataIntegrityViolationException violation = constraintViolation("store_owner_fkey");
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.existsByName(storeName)).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenThrow(violation);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            storeService.createStore(storeName);
+        });
+
+        assertSame(violation, exception);
+    }
+
+    @Test
+    public void changeName_ViolationWithoutConstraintIsRethrownTest() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("uk_store_name");
+
+        when(securityUtils.getCurrentUserId(accountRepository)).thenReturn(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(storeRepository.findByName(storeName)).thenReturn(Optional.of(testStore));
+        doThrow(violation).when(storeRepository).flush();
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            storeService.changeName(storeName, "Самый новый");
+        });
+
+        assertSame(violation, exception);
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), constraintName));
+    }
+}
@@ -0,0 +1,101 @@
+package app.unit.service;
+
+import app.dto.StoreStatsDTO;
+import app.dto.StoreStatsShardView;
+import app.entity.StoreStats;
+import app.handler.NotFoundException;
+import app.repository.StoreRepository;
+import app.repository.StoreStatsRepository;
+import app.service.StoreStatsService;
+import app.utils.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("Unit")
+@ExtendWith(MockitoExtension.class)
+class StoreStatsServiceTest {
+
+    @Mock
+    private StoreStatsRepository storeStatsRepository;
+    @Mock
+    private StoreRepository storeRepository;
+
+    private StoreStatsService storeStatsService;
+    private StoreStats stats;
+
+    @BeforeEach
+    public void setUp() {
+        storeStatsService = new StoreStatsService(storeStatsRepository, storeRepository,
+                new ServiceMetrics(new SimpleMeterRegistry()), true, 16);
+        stats = new StoreStats(1L, 2, 15L, new BigDecimal(825), Instant.now());
+    }
+
+    @Test
+    public void testApplyTrade_FirstUnitsAddSku() {
+        storeStatsService.applyTrade(1L, 2L, 0, 5);
+
+        verify(storeStatsRepository).applyDelta(1L, 2, 2L, 1, 5);
+        verify(storeStatsRepository, never()).recompute(any());
+    }
+
+    @Test
+    public void testApplyTrade_LastUnitsRemoveSku() {
+        storeStatsService.applyTrade(1L, 2L, 3, 0);
+
+        verify(storeStatsRepository).applyDelta(1L, 2, 2L, -1, -3);
+    }
+
+    @Test
+    public void testApplyTrade_ProductsSpreadAcrossShards() {
+        storeStatsService.applyTrade(1L, 17L, 3, 5);
+        storeStatsService.applyTrade(1L, 18L, 3, 5);
+
+        verify(storeStatsRepository).applyDelta(1L, 1, 17L, 0, 2);
+        verify(storeStatsRepository).applyDelta(1L, 2, 18L, 0, 2);
+    }
+
+    @Test
+    public void testGetStats_AddsShardDeltasToRow() {
+        Instant tradedAt = stats.getUpdatedAt().plusSeconds(5);
+        StoreStatsShardView deltas = mock(StoreStatsShardView.class);
+        when(deltas.getSkuCount()).thenReturn(1L);
+        when(deltas.getTotalQuantity()).thenReturn(-3L);
+        when(deltas.getTotalValue()).thenReturn(new BigDecimal(-165));
+        when(deltas.getUpdatedAt()).thenReturn(tradedAt);
+        when(storeStatsRepository.findById(1L)).thenReturn(Optional.of(stats));
+        when(storeStatsRepository.sumShards(1L)).thenReturn(deltas);
+
+        StoreStatsDTO result = storeStatsService.getStats(1L);
+
+        assertEquals(3, result.getSkuCount());
+        assertEquals(12L, result.getTotalQuantity());
+        assertEquals(new BigDecimal(660), result.getTotalValue());
+        assertEquals(tradedAt, result.getUpdatedAt());
+        verifyNoInteractions(storeRepository);
+    }
+
+    @Test
+    public void testGetStats_StoreNotFound() {
+        when(storeStatsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(storeRepository.existsById(1L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+            storeStatsService.getStats(1L);
+        });
+
+        assertEquals("Магазин не найден", exception.getMessage());
+        verify(storeStatsRepository, never()).recompute(any());
+    }
+}
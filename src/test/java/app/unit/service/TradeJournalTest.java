@@ -0,0 +1,113 @@
+package app.unit.service;
+
+import app.service.TradeJournal;
+import app.utils.TradeJournalReplay;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class TradeJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testAppend_ReadsBackEntries() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 1, true)) {
+            journal.append(1L, 2L, 3L, 5, new BigDecimal("-275.50"));
+            journal.append(1L, 2L, 3L, -2, new BigDecimal("110.20"));
+        }
+
+        List<TradeJournal.Entry> entries = readAll();
+
+        assertEquals(2, entries.size());
+        TradeJournal.Entry first = entries.get(0);
+        assertEquals(1, first.sequence());
+        assertEquals(1L, first.accountId());
+        assertEquals(2L, first.storeId());
+        assertEquals(3L, first.productId());
+        assertEquals(5, first.quantityDelta());
+        assertEquals(new BigDecimal("-275.50"), first.balanceDelta());
+        assertEquals(new BigDecimal("110.20"), entries.get(1).balanceDelta());
+    }
+
+    @Test
+    public void testAppend_RotatesFullSegment() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, TradeJournal.RECORD_SIZE * 2, 1, false)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(1L, 1L, 1L, 1, BigDecimal.ONE);
+            }
+        }
+
+        assertEquals(3, TradeJournal.segments(directory).size());
+        assertEquals(5, readAll().size());
+    }
+
+    @Test
+    public void testReopen_ContinuesSequence() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 1, true)) {
+            journal.append(1L, 1L, 1L, 1, BigDecimal.ONE);
+        }
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 1, true)) {
+            // Перезапуск без операций оставляет пустой сегмент
+        }
+
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 1, true)) {
+            assertEquals(2, journal.append(1L, 1L, 1L, 1, BigDecimal.ONE));
+        }
+    }
+
+    @Test
+    public void testAppend_WaitForSyncIsBounded() {
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 60_000, true, 20)) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> journal.append(1L, 1L, 1L, 1, BigDecimal.ONE));
+
+            assertEquals("Журнал операций не сброшен на диск за 20 мс", exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testReplay_AppliesJournalAfterSnapshot() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, 1024, 1, true)) {
+            journal.append(1L, 1L, 1L, 10, new BigDecimal(-550));
+            journal.append(1L, 1L, 1L, 5, new BigDecimal(-275));
+            journal.append(1L, 1L, 2L, -1, new BigDecimal(40));
+        }
+        Path snapshot = Files.createTempFile(directory, "snapshot", ".txt");
+        Files.writeString(snapshot, """
+                sequence 1
+                account 1 4450
+                inventory 1 1 10
+                inventory 1 2 3
+                """, StandardCharsets.UTF_8);
+
+        TradeJournalReplay replay = new TradeJournalReplay();
+        replay.loadSnapshot(snapshot);
+        replay.replay(directory);
+
+        assertEquals(3, replay.getSequence());
+        assertEquals(new BigDecimal(4215), replay.getBalance(1L));
+        assertEquals(15, replay.getQuantity(1L, 1L));
+        assertEquals(2, replay.getQuantity(1L, 2L));
+    }
+
+    private List<TradeJournal.Entry> readAll() throws IOException {
+        List<TradeJournal.Entry> entries = new ArrayList<>();
+        for (Path segment : TradeJournal.segments(directory)) {
+            TradeJournal.read(segment, entries::add);
+        }
+        return entries;
+    }
+}
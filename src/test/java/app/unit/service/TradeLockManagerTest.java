@@ -0,0 +1,74 @@
+package app.unit.service;
+
+import app.handler.TradeConflictException;
+import app.service.TradeLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("Unit")
+class TradeLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeLockManager tradeLockManager;
+
+    private final Object account = TradeLockManager.accountKey(1L);
+    private final Object item = TradeLockManager.itemKey(1L, 2L);
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tradeLockManager = new TradeLockManager(meterRegistry, 1000, 50);
+    }
+
+    @Test
+    public void testStripeCountRoundedToPowerOfTwo() {
+        assertEquals(1024, tradeLockManager.getStripeCount());
+    }
+
+    @Test
+    public void testAcquire_TimesOutWhileHeldByAnotherThread() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try (TradeLockManager.Lease lease = tradeLockManager.acquire(List.of(account, item))) {
+                locked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TradeConflictException.class, () -> tradeLockManager.acquire(List.of(item)));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, meterRegistry.get(TradeLockManager.TIMEOUT_COUNTER).counter().count());
+        assertEquals(1, meterRegistry.get(TradeLockManager.CONTENDED_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testAcquire_AvailableAgainAfterClose() throws Exception {
+        tradeLockManager.acquire(List.of(item, account)).close();
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            try (TradeLockManager.Lease lease = tradeLockManager.acquire(List.of(account, item))) {
+                return true;
+            }
+        });
+
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(TradeLockManager.TIMEOUT_COUNTER).counter().count());
+        assertEquals(2, meterRegistry.get(TradeLockManager.WAIT_TIMER).timer().count());
+    }
+}